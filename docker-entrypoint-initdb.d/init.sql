@@ -15,6 +15,43 @@ CREATE TABLE IF NOT EXISTS processed_record (
     status VARCHAR(50) NOT NULL
 );
 
+-- Rows skipped with fault.mode=quarantine, with the stage that rejected them and why
+CREATE TABLE IF NOT EXISTS rejected_record (
+    reject_id BIGSERIAL PRIMARY KEY,
+    record_id BIGINT,
+    payload TEXT,
+    stage VARCHAR(20) NOT NULL,
+    reason TEXT NOT NULL,
+    partition_id VARCHAR(100),
+    rejected_at TIMESTAMP NOT NULL
+);
+
+-- Partitions published by the manager with partition.remote.enabled=true and claimed by worker tasks
+CREATE TABLE IF NOT EXISTS partition_work (
+    step_execution_id BIGINT PRIMARY KEY,
+    job_execution_id BIGINT NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    claimed_by VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    claimed_at TIMESTAMP,
+    heartbeat_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_partition_work_status ON partition_work(status, job_execution_id);
+
+-- Heartbeat of the manager of each job execution with partition.remote.enabled=true; workers only claim partitions
+-- of executions whose manager is alive
+CREATE TABLE IF NOT EXISTS partition_manager (
+    job_execution_id BIGINT PRIMARY KEY,
+    heartbeat_at TIMESTAMP NOT NULL
+);
+
+-- Payload fingerprint of every id last written by incremental.enabled=true runs
+CREATE TABLE IF NOT EXISTS record_fingerprint (
+    id BIGINT PRIMARY KEY,
+    fingerprint BIGINT NOT NULL
+);
+
 -- Create Spring Batch metadata tables (simple subset) - include the supplied script if available
 -- You can replace below with a copy of src/main/resources/db/spring-batch-schema-postgres.sql
 
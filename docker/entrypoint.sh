@@ -39,5 +39,19 @@ if [[ -n "${CLOUD_SQL_CONNECTION:-}" ]]; then
   export SPRING_DATASOURCE_PASSWORD="${SPRING_DATASOURCE_PASSWORD:-${DB_PASS:-postgres}}"
 fi
 
-exec java ${JAVA_OPTS} -jar /app/app.jar
+# Spring AOT code is only present in images built with AOT=true
+if [[ "${SPRING_AOT_ENABLED:-false}" == "true" ]]; then
+  JAVA_OPTS="${JAVA_OPTS} -Dspring.aot.enabled=true"
+fi
+
+# CDS_TRAINING=true dumps the classes loaded by this run into an AppCDS archive at exit (see tools/train-cds.sh);
+# later runs map the archive instead of loading and verifying those classes again
+CDS_ARCHIVE=/app/cds/app.jsa
+if [[ "${CDS_TRAINING:-false}" == "true" ]]; then
+  JAVA_OPTS="${JAVA_OPTS} -XX:ArchiveClassesAtExit=${CDS_ARCHIVE}"
+elif [[ -f "${CDS_ARCHIVE}" ]]; then
+  JAVA_OPTS="${JAVA_OPTS} -XX:SharedArchiveFile=${CDS_ARCHIVE}"
+fi
+
+exec java ${JAVA_OPTS} -cp "/app/application.jar:/app/lib/*" com.mayank.batch.SpringBatchBenchmarkApplication "$@"
 
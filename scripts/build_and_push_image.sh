@@ -18,6 +18,9 @@ REGION="${REGION:-us-central1}"
 REPO_NAME="${REPO_NAME:-spring-batch-repo}"
 IMAGE_NAME="${IMAGE_NAME:-spring-batch-benchmark}"
 IMAGE_TAG="${IMAGE_TAG:-latest}"
+# AOT=true builds with Spring AOT; CDS=true adds an AppCDS archive from a local training run (needs Docker)
+AOT="${AOT:-false}"
+CDS="${CDS:-false}"
 
 if [[ -z "${PROJECT_ID}" ]]; then
   echo "ERROR: PROJECT_ID is not set. Please export PROJECT_ID or pass it inline."
@@ -31,7 +34,12 @@ echo "=== Building Spring Batch jar with Maven (skip tests) ==="
 mvn -B -DskipTests clean package
 
 echo "=== Building Docker image ${FULL_IMAGE} ==="
-docker build -t "${FULL_IMAGE}" -f docker/Dockerfile .
+docker build --build-arg AOT="${AOT}" -t "${FULL_IMAGE}" -f docker/Dockerfile .
+
+if [[ "${CDS}" == "true" ]]; then
+  echo "=== Training an AppCDS archive for ${FULL_IMAGE} ==="
+  ./tools/train-cds.sh "${FULL_IMAGE}"
+fi
 
 echo "=== Configuring Docker to use gcloud credentials ==="
 gcloud auth configure-docker "${REGION}-docker.pkg.dev" --quiet
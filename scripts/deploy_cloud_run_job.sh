@@ -31,6 +31,8 @@ INPUT_FILE="${INPUT_FILE:-gs://mayank_bucket-271999/datasets/sample-10k.csv}"
 CHUNK_SIZE="${CHUNK_SIZE:-100}"
 PARTITION_GRID="${PARTITION_GRID:-4}"
 RETRY_MAX_ATTEMPTS="${RETRY_MAX_ATTEMPTS:-3}"
+# More than one task turns on remote partitioning: task 0 runs the job, the others claim its partitions
+TASK_COUNT="${TASK_COUNT:-1}"
 
 if [[ -z "${PROJECT_ID}" ]]; then
   echo "ERROR: PROJECT_ID is not set."
@@ -53,12 +55,12 @@ gcloud services enable run.googleapis.com sqladmin.googleapis.com monitoring.goo
 # Set environment variables for the Cloud Run job
 # The 'cloudrun' profile will configure the database and metrics correctly
 # using Spring Cloud GCP. We pass in:
-#   - SPRING_PROFILES_ACTIVE=cloudrun
+#   - SPRING_PROFILES_ACTIVE=cloudrun,job (job = no web server, lazy beans)
 #   - DB_USER / DB_PASS / DB_NAME for DB credentials
 #   - CLOUD_SQL_CONNECTION for both the connector and Spring Cloud GCP
 #   - gcp.project.id so Spring Cloud GCP knows the project
 ENV_VARS=(
-  "SPRING_PROFILES_ACTIVE=cloudrun"
+  "SPRING_PROFILES_ACTIVE=cloudrun,job"
   "SPRING_DATASOURCE_USERNAME=${DB_USER}"
   "SPRING_DATASOURCE_PASSWORD=${DB_PASS}"
   "DB_NAME=${DB_NAME}"
@@ -68,6 +70,7 @@ ENV_VARS=(
   "CHUNK_SIZE=${CHUNK_SIZE}"
   "PARTITION_GRID=${PARTITION_GRID}"
   "RETRY_MAX_ATTEMPTS=${RETRY_MAX_ATTEMPTS}"
+  "PARTITION_REMOTE=$([[ "${TASK_COUNT}" -gt 1 ]] && echo true || echo false)"
   "EXIT_ON_COMPLETE=true"
 )
 
@@ -78,6 +81,8 @@ CMD=(gcloud run jobs deploy "${JOB_NAME}"
   --region "${REGION}"
   --image "${IMAGE}"
   --max-retries=0
+  --tasks="${TASK_COUNT}"
+  --parallelism="${TASK_COUNT}"
   --memory=1Gi
   --cpu=1
   --task-timeout=3600s
@@ -26,6 +26,9 @@ INPUT_FILE="${INPUT_FILE:-data/sample-10k.csv}"
 CHUNK_SIZE="${CHUNK_SIZE:-100}"
 PARTITION_GRID="${PARTITION_GRID:-4}"
 RETRY_MAX_ATTEMPTS="${RETRY_MAX_ATTEMPTS:-3}"
+# More than one pod turns on remote partitioning: pod 0 runs the job, the others claim its partitions
+TASK_COUNT="${TASK_COUNT:-1}"
+PARTITION_REMOTE="$([[ "${TASK_COUNT}" -gt 1 ]] && echo true || echo false)"
 STACKDRIVER_METRICS_ENABLED="${STACKDRIVER_METRICS_ENABLED:-false}"
 GCP_PROJECT_ID="${GCP_PROJECT_ID:-}"
 CLOUD_SQL_CONNECTION="${CLOUD_SQL_CONNECTION:-}"
@@ -109,6 +112,10 @@ metadata:
   name: ${JOB_NAME}
 spec:
   backoffLimit: 0
+  # Indexed pods get JOB_COMPLETION_INDEX, which becomes partition.remote.taskIndex
+  completionMode: Indexed
+  completions: ${TASK_COUNT}
+  parallelism: ${TASK_COUNT}
   template:
     spec:
       restartPolicy: Never
@@ -131,6 +138,10 @@ spec:
               value: "${PARTITION_GRID}"
             - name: RETRY_MAX_ATTEMPTS
               value: "${RETRY_MAX_ATTEMPTS}"
+            - name: PARTITION_REMOTE
+              value: "${PARTITION_REMOTE}"
+            - name: PARTITION_REMOTE_TASK_COUNT
+              value: "${TASK_COUNT}"
             - name: STACKDRIVER_METRICS_ENABLED
               value: "${STACKDRIVER_METRICS_ENABLED}"
             - name: EXIT_ON_COMPLETE
@@ -0,0 +1,58 @@
+package com.mayank.batch.benchmark;
+
+import com.mayank.batch.model.Record;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic input shared by the benchmarks, in the same CSV shape as {@code DataGenerator}.
+ */
+final class BenchmarkData {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private BenchmarkData() {
+    }
+
+    static Path writeCsv(int rows) throws IOException {
+        Path file = Files.createTempFile("jmh-" + rows + "-", ".csv");
+        file.toFile().deleteOnExit();
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 1; i <= rows; i++) {
+                writer.write(Integer.toString(i));
+                writer.write(",\"");
+                writer.write(payload(random).replace("\"", "\"\""));
+                writer.write("\",");
+                writer.write(BASE_TIME.plusNanos(random.nextInt(1_000_000_000) * 1_000L).toString());
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    static List<Record> records(int count, long firstId) {
+        Random random = new Random(firstId);
+        List<Record> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Record record = new Record();
+            record.setId(firstId + i);
+            record.setPayload(payload(random));
+            record.setCreatedAt(BASE_TIME);
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static String payload(Random random) {
+        return "{\"value\": " + random.nextInt(1000) + ", \"category\": \"CAT_" + random.nextInt(10)
+                + "\", \"active\": " + random.nextBoolean() + "}";
+    }
+}
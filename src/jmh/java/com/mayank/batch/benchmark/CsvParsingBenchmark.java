@@ -0,0 +1,76 @@
+package com.mayank.batch.benchmark;
+
+import com.mayank.batch.model.Record;
+import com.mayank.batch.reader.ByteRangeResource;
+import com.mayank.batch.reader.CsvPartitionItemReader;
+import com.mayank.batch.reader.RecordFieldSetMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads one partition-sized CSV file end to end, comparing the {@code FlatFileItemReader} +
+ * {@link RecordFieldSetMapper} path with {@link CsvPartitionItemReader}. Scores are per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParsingBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private Path input;
+    private long size;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        input = BenchmarkData.writeCsv(ROWS);
+        size = Files.size(input);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(input);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void fieldSetMapper(Blackhole blackhole) throws Exception {
+        readAll(new FlatFileItemReaderBuilder<Record>()
+                .name("csvItemReader")
+                .resource(new ByteRangeResource(new FileSystemResource(input), 0, size))
+                .delimited()
+                .names("id", "payload", "createdAt")
+                .fieldSetMapper(new RecordFieldSetMapper())
+                .build(), blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mappedReader(Blackhole blackhole) throws Exception {
+        readAll(new CsvPartitionItemReader(new FileSystemResource(input), 0, size), blackhole);
+    }
+
+    private static void readAll(ItemStreamReader<Record> reader, Blackhole blackhole) throws Exception {
+        reader.open(new ExecutionContext());
+        try {
+            Record record;
+            while ((record = reader.read()) != null) {
+                blackhole.consume(record);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
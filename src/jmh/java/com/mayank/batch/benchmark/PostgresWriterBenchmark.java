@@ -0,0 +1,110 @@
+package com.mayank.batch.benchmark;
+
+import com.mayank.batch.model.Record;
+import com.mayank.batch.writer.PostgresCopyItemWriter;
+import com.mayank.batch.writer.PostgresItemWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-chunk cost of each {@code writer.strategy} upserting into {@code processed_record}.
+ * <p>
+ * Runs against the database given by {@code -Dbenchmark.jdbcUrl} (with {@code benchmark.username} /
+ * {@code benchmark.password}), or a Testcontainers {@code postgres:16-alpine} when it is not set. Chunks
+ * cycle through a fixed id range, so after the first pass every write is an update, as on a rerun.
+ * <p>
+ * Every chunk is written in its own transaction on one kept-open connection, the way a partition's step calls the
+ * writer, so connection setup is not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PostgresWriterBenchmark {
+
+    private static final int CHUNKS = 50;
+
+    @Param({"batch", "unnest", "copy"})
+    public String strategy;
+
+    @Param({"100", "1000"})
+    public int chunkSize;
+
+    private PostgreSQLContainer<?> postgres;
+    private SingleConnectionDataSource dataSource;
+    private TransactionTemplate transactionTemplate;
+    private ItemWriter<Record> writer;
+    private Chunk<Record>[] chunks;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource();
+        dataSource.setSuppressClose(true);
+        String jdbcUrl = System.getProperty("benchmark.jdbcUrl");
+        if (jdbcUrl == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("batchdb")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+            postgres.start();
+            dataSource.setUrl(postgres.getJdbcUrl());
+            dataSource.setUsername(postgres.getUsername());
+            dataSource.setPassword(postgres.getPassword());
+        } else {
+            dataSource.setUrl(jdbcUrl);
+            dataSource.setUsername(System.getProperty("benchmark.username", "postgres"));
+            dataSource.setPassword(System.getProperty("benchmark.password", "postgres"));
+        }
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema.sql")).execute(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        if ("copy".equals(strategy)) {
+            writer = new PostgresCopyItemWriter(dataSource);
+        } else {
+            PostgresItemWriter postgresItemWriter = new PostgresItemWriter(dataSource);
+            ReflectionTestUtils.setField(postgresItemWriter, "strategy", strategy);
+            writer = postgresItemWriter;
+        }
+
+        chunks = new Chunk[CHUNKS];
+        for (int i = 0; i < CHUNKS; i++) {
+            List<Record> records = BenchmarkData.records(chunkSize, 1L + (long) i * chunkSize);
+            chunks[i] = new Chunk<>(records);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Benchmark
+    public void write() {
+        Chunk<Record> chunk = chunks[next++ % CHUNKS];
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                writer.write(chunk);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to write benchmark chunk", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.mayank.batch.benchmark;
+
+import com.google.cloud.storage.Storage;
+import com.mayank.batch.partitioner.RangePartitioner;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for {@link RangePartitioner#partition} to scan a generated input file of 10k, 1M and 10M rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RangePartitionerBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"4", "16"})
+    public int gridSize;
+
+    private Path input;
+    private RangePartitioner partitioner;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        input = BenchmarkData.writeCsv(rows);
+        partitioner = new RangePartitioner(new DefaultResourceLoader(),
+                new DefaultListableBeanFactory().getBeanProvider(Storage.class));
+        ReflectionTestUtils.setField(partitioner, "inputFile", input.toUri().toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(input);
+    }
+
+    @Benchmark
+    public Map<String, ExecutionContext> partition() {
+        return partitioner.partition(gridSize);
+    }
+}
@@ -0,0 +1,53 @@
+package com.mayank.batch.benchmark;
+
+import com.mayank.batch.model.Record;
+import com.mayank.batch.processor.TransformProcessor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record cost of {@link TransformProcessor#process}, with the previous {@code String.format}
+ * implementation as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransformProcessorBenchmark {
+
+    @Param({"false", "true"})
+    public boolean mutateInPlace;
+
+    private final TransformProcessor processor = new TransformProcessor();
+    private List<Record> records;
+    private String[] payloads;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ReflectionTestUtils.setField(processor, "mutateInPlace", mutateInPlace);
+        records = BenchmarkData.records(1024, 1);
+        payloads = records.stream().map(Record::getPayload).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public Record process() {
+        int i = next++ & 1023;
+        Record record = records.get(i);
+        // Restore the original payload so in-place mode does not keep growing it
+        record.setPayload(payloads[i]);
+        return processor.process(record);
+    }
+
+    @Benchmark
+    public String stringFormatBaseline() {
+        return String.format("{\"original\": %s, \"processed\": true, \"timestamp\": \"%s\"}",
+                payloads[next++ & 1023], Instant.now().toString());
+    }
+}
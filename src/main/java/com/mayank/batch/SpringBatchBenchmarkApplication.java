@@ -1,12 +1,14 @@
 package com.mayank.batch;
 
+import com.mayank.batch.reader.ColumnarFormat;
+import com.mayank.batch.runner.LocalBenchmarkRunner;
+import com.mayank.batch.util.ColumnarConverter;
+import com.mayank.batch.util.DataGenerator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.PrintWriter;
-import java.time.LocalDateTime;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 
 @SpringBootApplication
@@ -14,49 +16,68 @@ public class SpringBatchBenchmarkApplication {
 
     public static void main(String[] args) {
         // Check for data generation mode before starting Spring
-        if (Arrays.stream(args).anyMatch(arg -> arg.equalsIgnoreCase("generate-data"))) {
-            System.out.println("--- Running in Standalone Data Generation Mode ---");
-            try {
-                String outputFile = "data/sample-10k.csv";
-                int recordCount = 10000;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("generate-data")) {
+                System.out.println("--- Running in Standalone Data Generation Mode ---");
+                try {
+                    DataGenerator.Options options = DataGenerator.Options.parse(
+                            Arrays.asList(args).subList(i + 1, args.length));
+                    System.out.printf("Generating %d records to %s with %d threads...%n",
+                            options.count(), options.output(), options.threads());
+                    long started = System.nanoTime();
+                    long bytes = DataGenerator.generate(options);
+                    System.out.printf("Wrote %d bytes in %.1f s%n", bytes, (System.nanoTime() - started) / 1e9);
+                } catch (Exception e) {
+                    System.err.println("Failed to generate data file: " + e.getMessage());
+                    e.printStackTrace();
+                    System.exit(1);
+                }
+                System.out.println("--- Data Generation Complete. Exiting. ---");
+                // Exit without starting the Spring context
+                return;
+            }
+        }
 
-                // Simple arg parsing to find the number of records
-                for (int i = 0; i < args.length; i++) {
-                    if (args[i].equalsIgnoreCase("generate-data") && (i + 1) < args.length) {
-                        try {
-                            recordCount = Integer.parseInt(args[i + 1]);
-                        } catch (NumberFormatException ignored) {}
-                        break;
-                    }
+        // Conversion mode: rewrite a CSV dataset in the columnar format, without starting Spring
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("convert-data")) {
+                if (i + 1 >= args.length) {
+                    System.err.println("Usage: convert-data <input.csv> [output.col] [rowGroupSize]");
+                    System.exit(1);
                 }
-                generateDataFile(outputFile, recordCount);
+                Path input = Paths.get(args[i + 1]);
+                Path output = i + 2 < args.length ? Paths.get(args[i + 2]) : ColumnarConverter.defaultOutput(input);
+                int rowGroupSize = i + 3 < args.length
+                        ? Integer.parseInt(args[i + 3])
+                        : ColumnarFormat.DEFAULT_ROW_GROUP_SIZE;
+                System.out.printf("--- Converting %s to %s ---%n", input, output);
+                try {
+                    long rows = ColumnarConverter.convert(input, output, rowGroupSize);
+                    System.out.printf("--- Wrote %d records. Exiting. ---%n", rows);
+                } catch (Exception e) {
+                    System.err.println("Failed to convert data file: " + e.getMessage());
+                    e.printStackTrace();
+                    System.exit(1);
+                }
+                return;
+            }
+        }
+
+        // Local benchmark mode: run the job matrix in this JVM, one application context per combination
+        if (Arrays.stream(args).anyMatch(arg -> arg.equalsIgnoreCase("benchmark"))) {
+            System.out.println("--- Running in Local Benchmark Mode ---");
+            int exitCode;
+            try {
+                exitCode = new LocalBenchmarkRunner(System.getenv()).run();
             } catch (Exception e) {
-                System.err.println("Failed to generate data file: " + e.getMessage());
+                System.err.println("Failed to run benchmarks: " + e.getMessage());
                 e.printStackTrace();
-                System.exit(1);
+                exitCode = 1;
             }
-            System.out.println("--- Data Generation Complete. Exiting. ---");
-            // Exit without starting the Spring context
-            return;
+            System.exit(exitCode);
         }
 
         // If not in data generation mode, run the full Spring Boot application
         SpringApplication.run(SpringBatchBenchmarkApplication.class, args);
     }
-
-    private static void generateDataFile(String filePath, int recordCount) throws Exception {
-        System.out.printf("Generating %d records to %s...%n", recordCount, filePath);
-        File file = new File(filePath);
-        // Ensure parent directory exists
-        if (file.getParentFile() != null) {
-            file.getParentFile().mkdirs();
-        }
-
-        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-            for (long i = 1; i <= recordCount; i++) {
-                String payload = String.format("{\"record_id\":%d, \"data\":\"payload-data-%d\"}", i, i);
-                writer.printf("%d,\"%s\",%s%n", i, payload, LocalDateTime.now());
-            }
-        }
-    }
 }
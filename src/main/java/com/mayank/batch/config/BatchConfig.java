@@ -1,41 +1,101 @@
 package com.mayank.batch.config;
 
+import com.google.cloud.storage.Storage;
 import com.mayank.batch.listener.BatchMetricsListener;
+import com.mayank.batch.listener.ChunkMetricsListener;
+import com.mayank.batch.listener.ConnectionPinningListener;
+import com.mayank.batch.listener.DeferredIndexListener;
 import com.mayank.batch.listener.JobRunLoggingListener;
+import com.mayank.batch.listener.LifecycleMetricsListener;
 import com.mayank.batch.listener.LoggingStepExecutionListener;
+import com.mayank.batch.listener.PartitionSlotListener;
+import com.mayank.batch.listener.QuarantineListener;
+import com.mayank.batch.listener.RetryMetricsListener;
 import com.mayank.batch.model.Record;
 import com.mayank.batch.partitioner.RangePartitioner;
+import com.mayank.batch.partitioner.SourceTablePartitioner;
+import com.mayank.batch.partitioner.TablePartitionHandler;
+import com.mayank.batch.processor.RecordValidator;
+import com.mayank.batch.reader.ByteRangeResource;
+import com.mayank.batch.reader.ColumnarPartitionItemReader;
+import com.mayank.batch.reader.CompressedPartitionResource;
+import com.mayank.batch.reader.CsvPartitionItemReader;
+import com.mayank.batch.reader.FingerprintCache;
+import com.mayank.batch.reader.FingerprintFilteringItemReader;
+import com.mayank.batch.reader.FingerprintSnapshot;
+import com.mayank.batch.reader.IdRangeFilteringItemReader;
+import com.mayank.batch.reader.InputResources;
+import com.mayank.batch.reader.PipelinedItemReader;
+import com.mayank.batch.reader.RecordFieldSetMapper;
+import com.mayank.batch.step.AdaptiveChunkSizePolicy;
+import com.mayank.batch.step.QuarantineSkipPolicy;
+import com.mayank.batch.step.TransientErrorRetryPolicy;
+import com.mayank.batch.writer.FingerprintingItemWriter;
+import com.mayank.batch.writer.SortingDedupingItemWriter;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.SkipListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
+import org.springframework.batch.core.step.builder.PartitionStepBuilder;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.*;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
+import org.springframework.batch.item.database.support.PostgresPagingQueryProvider;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.support.CompositeItemProcessor;
+import org.springframework.batch.item.validator.ValidatingItemProcessor;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.lang.NonNull;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
 @Configuration
 @SuppressWarnings("unused")
 public class BatchConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(BatchConfig.class);
+
     private final ResourceLoader resourceLoader;
+    private final ObjectProvider<Storage> storage;
 
-    public BatchConfig(ResourceLoader resourceLoader) {
+    public BatchConfig(ResourceLoader resourceLoader, ObjectProvider<Storage> storage) {
         this.resourceLoader = resourceLoader;
+        this.storage = storage;
     }
 
     @Value("${chunk.size:100}")
@@ -47,96 +107,340 @@ public class BatchConfig {
     @Value("${retry.maxAttempts:3}")
     private int maxRetryAttempts;
 
+    @Value("${fault.mode:retry}")
+    private String faultMode;
+
+    @Value("${fault.skipLimit:0}")
+    private long skipLimit;
+
+    @Value("${reader.type:mapped}")
+    private String readerType;
+
+    @Value("${reader.readAheadBytes:4194304}")
+    private int readAheadBytes;
+
+    @Value("${writer.strategy:batch}")
+    private String writerStrategy;
+
+    @Value("${writer.sortById:false}")
+    private boolean writerSortById;
+
+    @Value("${partition.executor:platform}")
+    private String partitionExecutor;
+
+    @Value("${partition.dbPermits:0}")
+    private int dbPermits;
+
+    @Value("${partition.remote.enabled:false}")
+    private boolean remotePartitions;
+
+    @Value("${step.pipelined:false}")
+    private boolean pipelined;
+
+    @Value("${step.pipeline.capacity:0}")
+    private int pipelineCapacity;
+
+    @Value("${processor.mutateInPlace:false}")
+    private boolean processorMutatesInPlace;
+
+    @Value("${source.pageSize:0}")
+    private int sourcePageSize;
+
+    @Value("${incremental.enabled:false}")
+    private boolean incremental;
+
     @Bean
     public Job probeJob(JobRepository jobRepository,
                         Step masterStep,
                         JobRunLoggingListener jobRunLoggingListener,
-                        BatchMetricsListener batchMetricsListener) {
+                        BatchMetricsListener batchMetricsListener,
+                        DeferredIndexListener deferredIndexListener,
+                        FingerprintCache fingerprintCache) {
         return new JobBuilder("probeJob", jobRepository)
                 .incrementer(new RunIdIncrementer())
                 .start(masterStep)
                 .listener(jobRunLoggingListener)
                 .listener(batchMetricsListener)
+                .listener(deferredIndexListener)
+                .listener(fingerprintCache)
                 .build();
     }
 
     @Bean
     public Step masterStep(JobRepository jobRepository,
-                           RangePartitioner partitioner,
-                           Step slaveStep) {
-        return new StepBuilder("masterStep", jobRepository)
+                           @Qualifier("inputPartitioner") Partitioner partitioner,
+                           Step slaveStep,
+                           TaskExecutor taskExecutor,
+                           TablePartitionHandler tablePartitionHandler) {
+        PartitionStepBuilder builder = new StepBuilder("masterStep", jobRepository)
                 .partitioner(slaveStep.getName(), partitioner)
-                .step(slaveStep)
+                .step(slaveStep);
+        if (remotePartitions) {
+            // Partitions go to partition_work and are claimed by worker processes as well as local threads
+            return builder.partitionHandler(tablePartitionHandler).build();
+        }
+        return builder
                 .gridSize(gridSize)
-                .taskExecutor(taskExecutor())
+                .taskExecutor(taskExecutor)
                 .build();
     }
 
     @Bean
     public Step slaveStep(JobRepository jobRepository,
                           PlatformTransactionManager transactionManager,
-                          ItemReader<Record> itemReader,
+                          @Qualifier("partitionItemReader") ItemStreamReader<Record> partitionItemReader,
+                          @Qualifier("pipelinedItemReader") ItemStreamReader<Record> pipelinedItemReader,
                           @Qualifier("transformProcessor") ItemProcessor<Record, Record> itemProcessor,
-                          @Qualifier("postgresItemWriter") ItemWriter<Record> itemWriter,
-                          LoggingStepExecutionListener loggingStepExecutionListener) {
-        return new StepBuilder("slaveStep", jobRepository)
-                .<Record, Record>chunk(chunkSize, transactionManager)
-                .reader(itemReader)
-                .processor(itemProcessor)
+                          @Qualifier("postgresItemWriter") ItemWriter<Record> postgresItemWriter,
+                          @Qualifier("postgresCopyItemWriter") ItemWriter<Record> postgresCopyItemWriter,
+                          LoggingStepExecutionListener loggingStepExecutionListener,
+                          BatchMetricsListener batchMetricsListener,
+                          ChunkMetricsListener chunkMetricsListener,
+                          LifecycleMetricsListener lifecycleMetricsListener,
+                          RetryMetricsListener retryMetricsListener,
+                          AdaptiveChunkSizePolicy adaptiveChunkSizePolicy,
+                          QuarantineListener quarantineListener,
+                          ConnectionPinningListener connectionPinningListener,
+                          PartitionSlotListener partitionSlotListener,
+                          DataSource dataSource,
+                          MeterRegistry meterRegistry) {
+        ItemWriter<Record> itemWriter = "copy".equalsIgnoreCase(writerStrategy) ? postgresCopyItemWriter : postgresItemWriter;
+        if (incremental) {
+            // Fingerprints of the written records are stored in the chunk transaction, for the next run's reader
+            itemWriter = new FingerprintingItemWriter(itemWriter, dataSource);
+        }
+        if (writerSortById) {
+            // Partitions lock rows in ascending id order, so overlapping chunks queue instead of deadlocking
+            itemWriter = new SortingDedupingItemWriter(itemWriter, meterRegistry);
+        }
+        StepBuilder stepBuilder = new StepBuilder("slaveStep", jobRepository);
+        SimpleStepBuilder<Record, Record> builder = adaptiveChunkSizePolicy.isEnabled()
+                // The commit interval starts at chunk.size and follows commit latency or throughput per partition
+                ? stepBuilder.<Record, Record>chunk(adaptiveChunkSizePolicy, transactionManager)
+                : stepBuilder.<Record, Record>chunk(chunkSize, transactionManager);
+        if (pipelined) {
+            // Reading and processing run ahead on the pipeline thread, so the step only writes
+            builder.reader(pipelinedItemReader);
+        } else {
+            builder.reader(partitionItemReader)
+                    .processor(quarantine() ? validating(itemProcessor) : itemProcessor);
+        }
+        FaultTolerantStepBuilder<Record, Record> faultTolerantBuilder = builder
                 .writer(itemWriter)
                 .faultTolerant()
-                .retryPolicy(new SimpleRetryPolicy(maxRetryAttempts))
+                .retryPolicy(quarantine()
+                        ? new TransientErrorRetryPolicy(maxRetryAttempts)
+                        : new SimpleRetryPolicy(maxRetryAttempts))
                 .backOffPolicy(new ExponentialBackOffPolicy())
+                .listener(retryMetricsListener);
+        // First step listener: the slot is taken before the others start and released after they finish
+        faultTolerantBuilder.listener((StepExecutionListener) partitionSlotListener);
+        if (connectionPinningListener.isEnabled()) {
+            // Next listener: the partition's connection is taken before the reader opens and returned last
+            faultTolerantBuilder.listener(connectionPinningListener);
+        }
+        if (quarantine()) {
+            // Bad rows are skipped into rejected_record; invalid ones are dropped without rolling the chunk back
+            faultTolerantBuilder
+                    .skipPolicy(new QuarantineSkipPolicy(skipLimit))
+                    .noRollback(ValidationException.class)
+                    .listener((SkipListener<Record, Record>) quarantineListener);
+        }
+        if (processorMutatesInPlace) {
+            // Processed items are cached for write retries instead of re-processing already mutated inputs
+            faultTolerantBuilder.processorNonTransactional();
+        }
+        if (adaptiveChunkSizePolicy.isEnabled()) {
+            faultTolerantBuilder
+                    .listener((StepExecutionListener) adaptiveChunkSizePolicy)
+                    .listener((ChunkListener) adaptiveChunkSizePolicy);
+        }
+        return faultTolerantBuilder
                 .listener(loggingStepExecutionListener)
+                .listener((StepExecutionListener) batchMetricsListener)
+                .listener((ChunkListener) chunkMetricsListener)
+                .listener((ItemReadListener<Record>) chunkMetricsListener)
+                .listener((ItemProcessListener<Record, Record>) chunkMetricsListener)
+                .listener((ItemWriteListener<Record>) chunkMetricsListener)
+                .listener(lifecycleMetricsListener)
                 .build();
     }
 
+    /**
+     * Jobs launched with a {@code sourceTable} job parameter re-process that table; otherwise {@code inputFile} is read.
+     */
     @Bean
     @StepScope
-    public org.springframework.batch.item.file.FlatFileItemReader<Record> csvPartitionItemReader(
-            @Value("#{stepExecutionContext['startAt']}") int startAt,
-            @Value("#{stepExecutionContext['itemCount']}") int itemCount,
-            @Value("#{stepExecutionContext['inputFile'] ?: jobParameters['inputFile']}") @NonNull String inputFile) {
-
-        Resource resource = resourceLoader.getResource(inputFile);
-        if (resource == null || !resource.exists()) {
-            resource = new FileSystemResource(inputFile);
-        }
-
-        return new FlatFileItemReaderBuilder<Record>()
-                .name("csvItemReader")
-                .resource(resource)
-                // startAt is the zero-based number of data lines to skip (no header handled by file)
-                .linesToSkip(startAt)
-                .maxItemCount(itemCount)
-                .delimited()
-                .names("id", "payload", "createdAt")
-                .fieldSetMapper(fieldSet -> {
-                    Record r = new Record();
-                    try {
-                        r.setId(fieldSet.readLong("id"));
-                    } catch (Exception e) {
-                        r.setId(null);
-                    }
-                    try {
-                        r.setPayload(fieldSet.readString("payload"));
-                    } catch (Exception e) {
-                        r.setPayload(null);
-                    }
-                    try {
-                        r.setCreatedAt(java.time.LocalDateTime.parse(fieldSet.readString("createdAt")));
-                    } catch (Exception e) {
-                        r.setCreatedAt(null);
-                    }
-                    return r;
+    public Partitioner inputPartitioner(RangePartitioner rangePartitioner,
+                                        SourceTablePartitioner sourceTablePartitioner,
+                                        @Value("#{jobParameters['sourceTable']}") String sourceTable) {
+        return sourceTable == null ? rangePartitioner : sourceTablePartitioner;
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<Record> partitionItemReader(
+            @Qualifier("csvPartitionItemReader") ItemStreamReader<Record> csvPartitionItemReader,
+            @Qualifier("sourceTableItemReader") ItemStreamReader<Record> sourceTableItemReader,
+            @Value("#{stepExecutionContext['sourceTable']}") String sourceTable,
+            @Value("#{stepExecutionContext['minId']}") Long minId,
+            @Value("#{stepExecutionContext['maxId']}") Long maxId,
+            @Value("#{stepExecution.jobExecutionId}") long jobExecutionId,
+            DataSource dataSource,
+            FingerprintCache fingerprintCache,
+            MeterRegistry meterRegistry) {
+        ItemStreamReader<Record> reader = sourceTable == null ? csvPartitionItemReader : sourceTableItemReader;
+        if (incremental) {
+            // Partitions without an id range share one copy of the whole table rather than each loading it
+            Supplier<FingerprintSnapshot> snapshots = minId != null && maxId != null
+                    ? () -> FingerprintSnapshot.load(new JdbcTemplate(dataSource), minId, maxId)
+                    : () -> fingerprintCache.forJob(jobExecutionId);
+            // Unchanged records are dropped here, before the processor (or the pipeline thread) sees them
+            return new FingerprintFilteringItemReader(reader, snapshots, meterRegistry);
+        }
+        return reader;
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<Record> csvPartitionItemReader(
+            @Value("#{stepExecutionContext['startOffset']}") long startOffset,
+            @Value("#{stepExecutionContext['endOffset']}") long endOffset,
+            @Value("#{stepExecutionContext['inputFile'] ?: jobParameters['inputFile']}") @NonNull String inputFile,
+            @Value("#{stepExecutionContext['compression']}") String compression,
+            @Value("#{stepExecutionContext['format']}") String format,
+            @Value("#{stepExecutionContext['partitionBy']}") String partitionBy,
+            @Value("#{stepExecutionContext['minId']}") Long minId,
+            @Value("#{stepExecutionContext['maxId']}") Long maxId) {
+
+        Resource resource = InputResources.resolve(resourceLoader, storage.getIfAvailable(), inputFile, readAheadBytes);
+        if ("columnar".equals(format)) {
+            // Pre-converted with convert-data: no CSV parsing, whatever reader.type says
+            return new ColumnarPartitionItemReader(resource, startOffset, endOffset);
+        }
+        if (compression != null) {
+            // The partition's decompressed lines are read as a stream from start to end
+            resource = new CompressedPartitionResource(resource, compression, startOffset, endOffset);
+            startOffset = 0L;
+            endOffset = Long.MAX_VALUE;
+        }
+
+        ItemStreamReader<Record> reader;
+        if ("mapped".equalsIgnoreCase(readerType)) {
+            reader = new CsvPartitionItemReader(resource, startOffset, endOffset);
+        } else {
+            reader = new FlatFileItemReaderBuilder<Record>()
+                    .name("csvItemReader")
+                    // Only this partition's line-aligned byte range is read; no lines are skipped
+                    .resource(new ByteRangeResource(resource, startOffset, endOffset))
+                    .delimited()
+                    .names("id", "payload", "createdAt")
+                    .fieldSetMapper(new RecordFieldSetMapper())
+                    .build();
+        }
+        if ("id".equals(partitionBy) && minId != null && maxId != null) {
+            // Cut by id: the byte range may hold other partitions' ids, which this reader drops
+            return new IdRangeFilteringItemReader(reader, minId, maxId);
+        }
+        return reader;
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<Record> sourceTableItemReader(
+            DataSource dataSource,
+            @Value("#{stepExecutionContext['minId']}") long minId,
+            @Value("#{stepExecutionContext['maxId']}") long maxId,
+            @Value("#{stepExecutionContext['sourceTable']}") String sourceTable) {
+
+        PostgresPagingQueryProvider queryProvider = new PostgresPagingQueryProvider();
+        queryProvider.setSelectClause("id, payload::text AS payload, created_at");
+        queryProvider.setFromClause(sourceTable);
+        queryProvider.setWhereClause("id BETWEEN :minId AND :maxId");
+        queryProvider.setSortKeys(Map.of("id", Order.ASCENDING));
+
+        // Keyset paging (WHERE id > :lastId ORDER BY id LIMIT pageSize) over the primary key; the last id read is
+        // saved for restarts
+        return new JdbcPagingItemReaderBuilder<Record>()
+                .name("sourceTableItemReader")
+                .dataSource(dataSource)
+                .queryProvider(queryProvider)
+                .parameterValues(Map.of("minId", minId, "maxId", maxId))
+                .pageSize(sourcePageSize > 0 ? sourcePageSize : chunkSize)
+                .fetchSize(sourcePageSize > 0 ? sourcePageSize : chunkSize)
+                .rowMapper((rs, rowNum) -> {
+                    Record record = new Record();
+                    record.setId(rs.getLong("id"));
+                    record.setPayload(rs.getString("payload"));
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    record.setCreatedAt(createdAt == null ? null : createdAt.toLocalDateTime());
+                    return record;
                 })
                 .build();
     }
 
     @Bean
-    public TaskExecutor taskExecutor() {
+    @StepScope
+    public ItemStreamReader<Record> pipelinedItemReader(
+            @Qualifier("partitionItemReader") ItemStreamReader<Record> partitionItemReader,
+            @Qualifier("transformProcessor") ItemProcessor<Record, Record> itemProcessor,
+            AdaptiveChunkSizePolicy adaptiveChunkSizePolicy) {
+        // Checkpoints line up with the commit interval; the queue holds the next chunk or two while one is written.
+        // Adaptive chunks vary in size, so snapshots are taken at the smallest size and a restart re-reads less
+        // than one of those
+        int checkpointInterval = adaptiveChunkSizePolicy.isEnabled() ? adaptiveChunkSizePolicy.getMinSize() : chunkSize;
+        int capacity = pipelineCapacity > 0 ? pipelineCapacity : 2 * chunkSize;
+        if (quarantine()) {
+            // Invalid records surface on the step thread as skippable read failures
+            return new PipelinedItemReader<>(partitionItemReader, validating(itemProcessor), checkpointInterval,
+                    capacity, ValidationException.class);
+        }
+        return new PipelinedItemReader<>(partitionItemReader, itemProcessor, checkpointInterval, capacity);
+    }
+
+    private boolean quarantine() {
+        return "quarantine".equalsIgnoreCase(faultMode);
+    }
+
+    /**
+     * Validates each record with {@link RecordValidator} before handing it to {@code itemProcessor}.
+     */
+    private static ItemProcessor<Record, Record> validating(ItemProcessor<Record, Record> itemProcessor) {
+        ValidatingItemProcessor<Record> validator = new ValidatingItemProcessor<>(new RecordValidator());
+        return new CompositeItemProcessor<>(List.of(validator, itemProcessor));
+    }
+
+    @Bean
+    public TaskExecutor taskExecutor(DataSource dataSource) {
         SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor();
-        taskExecutor.setConcurrencyLimit(gridSize);
+        if ("virtual".equalsIgnoreCase(partitionExecutor)) {
+            // Virtual threads make partitions cheap, but every running partition holds a pooled
+            // connection per chunk, so concurrency is capped by the pool instead of the grid size
+            int concurrencyLimit = Math.min(gridSize, databasePermits(dataSource));
+            taskExecutor.setVirtualThreads(true);
+            taskExecutor.setThreadNamePrefix("partition-vt-");
+            taskExecutor.setConcurrencyLimit(concurrencyLimit);
+            log.info("Running up to {} of {} partitions concurrently on virtual threads", concurrencyLimit, gridSize);
+        } else {
+            taskExecutor.setConcurrencyLimit(gridSize);
+        }
+        // With partition.mode=dynamic there are more partitions than slots: submitting blocks until a running
+        // partition finishes, so each free worker takes the next unit in turn
         return taskExecutor;
     }
+
+    /**
+     * Number of partitions allowed to hold a connection at once: {@code partition.dbPermits} when set,
+     * otherwise the Hikari pool size minus one connection kept for the manager step's JobRepository updates.
+     */
+    private int databasePermits(DataSource dataSource) {
+        if (dbPermits > 0) {
+            return dbPermits;
+        }
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        if (hikari == null) {
+            return gridSize;
+        }
+        return Math.max(1, hikari.getMaximumPoolSize() - 1);
+    }
 }
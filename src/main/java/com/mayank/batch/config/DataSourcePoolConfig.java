@@ -0,0 +1,101 @@
+package com.mayank.batch.config;
+
+import com.mayank.batch.jdbc.PartitionAwareDataSource;
+import com.mayank.batch.listener.PartitionSlotListener;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+
+/**
+ * Sizes the job's Hikari pool from the partitions that can run at once and wraps it in a
+ * {@link PartitionAwareDataSource}.
+ * <p>
+ * A partition needs one connection: the reader of a source-table job, every writer strategy, the quarantine inserts
+ * and the JobRepository checkpoint all run on the chunk transaction's connection. {@code step.pipelined} adds one
+ * for the read-ahead thread. On top of the partitions the pool keeps one connection for the manager step and the
+ * JobRepository updates made outside chunk transactions, two more with remote partitioning (the worker heartbeat
+ * thread and the manager's heartbeat and completion polling), and one with {@code fault.mode=quarantine} or
+ * {@code incremental.enabled=true} for quarantine inserts made outside a chunk transaction and the fingerprint
+ * preload. The derived size never goes below Hikari's default of 10.
+ * <p>
+ * {@code db.pool.size}, or an explicit {@code spring.datasource.hikari.maximum-pool-size}, overrides the derived
+ * size; a smaller pool is logged, since partitions then queue for connections, and refused with
+ * {@code db.pool.pinPartitions=true}, where the extra partitions would time out waiting for theirs.
+ */
+@Configuration
+public class DataSourcePoolConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourcePoolConfig.class);
+
+    // Hikari's own default maximumPoolSize
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    static BeanPostProcessor partitionAwareDataSourcePostProcessor(@Value("${db.pool.size:0}") int poolSize,
+                                                                   @Value("${db.pool.pinPartitions:false}") boolean pinPartitions,
+                                                                   @Value("${partition.grid:4}") int gridSize,
+                                                                   @Value("${partition.executor:platform}") String partitionExecutor,
+                                                                   @Value("${partition.dbPermits:0}") int dbPermits,
+                                                                   @Value("${partition.remote.enabled:false}") boolean remotePartitions,
+                                                                   @Value("${partition.remote.threads:${partition.grid:4}}") int remoteThreads,
+                                                                   @Value("${step.pipelined:false}") boolean pipelined,
+                                                                   @Value("${fault.mode:retry}") String faultMode,
+                                                                   @Value("${incremental.enabled:false}") boolean incremental,
+                                                                   Environment environment,
+                                                                   ObjectProvider<MeterRegistry> registry,
+                                                                   ObjectProvider<PartitionSlotListener> partitionSlots) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                // Only the job's DataSource; a separate batch.metadata.url pool is sized on its own
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)
+                        || bean instanceof PartitionAwareDataSource) {
+                    return bean;
+                }
+                HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class,
+                        HikariDataSource.class);
+                if (hikari != null) {
+                    int partitions = remotePartitions ? remoteThreads : gridSize;
+                    if (!remotePartitions && "virtual".equalsIgnoreCase(partitionExecutor) && dbPermits > 0) {
+                        partitions = Math.min(partitions, dbPermits);
+                    }
+                    int perPartition = pipelined ? 2 : 1;
+                    int shared = 1 + (remotePartitions ? 2 : 0)
+                            + ("quarantine".equalsIgnoreCase(faultMode) || incremental ? 1 : 0);
+                    int required = partitions * perPartition + shared;
+                    int size = poolSize > 0
+                            ? poolSize
+                            : environment.containsProperty("spring.datasource.hikari.maximum-pool-size")
+                                ? hikari.getMaximumPoolSize()
+                                : Math.max(required, DEFAULT_POOL_SIZE);
+                    if (size < required) {
+                        String message = "Connection pool of " + size + " for " + partitions + " partitions needs "
+                                + required + " connections";
+                        if (pinPartitions) {
+                            throw new IllegalStateException(message + " to pin one per partition");
+                        }
+                        log.warn("{}; partitions will queue for connections (see batch.db.connection.acquire)",
+                                message);
+                    }
+                    hikari.setMaximumPoolSize(size);
+                    log.info("Connection pool size {} for {} concurrent partitions ({} each, {} shared){}",
+                            size, partitions, perPartition, shared,
+                            pinPartitions ? ", pinned per partition" : "");
+                }
+                return new PartitionAwareDataSource(dataSource, registry, partitionSlots);
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.mayank.batch.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.sql.init.AbstractScriptDatabaseInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans that stay eager under {@code spring.main.lazy-initialization=true} (the {@code job} profile). Everything the
+ * job needs is pulled in by the application runners anyway; the SQL script initializers are only reached through
+ * dependency ordering, so they are kept eager to make sure {@code spring.sql.init.mode=always} still creates the
+ * schema before the first query.
+ */
+@Configuration
+public class FastStartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerScriptInitializerFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AbstractScriptDatabaseInitializer.class);
+    }
+}
@@ -0,0 +1,41 @@
+package com.mayank.batch.config;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.stackdriver.StackdriverConfig;
+import io.micrometer.stackdriver.StackdriverMeterRegistry;
+
+/**
+ * {@link StackdriverMeterRegistry} whose {@link #close()} actually delivers the last metrics.
+ * <p>
+ * {@code StepMeterRegistry.close()} calls {@link #stop()} before publishing the last completed and the partial step,
+ * and {@code StackdriverMeterRegistry.stop()} shuts the {@code MetricServiceClient} down, so those final publishes
+ * failed and a short job lost most of its metrics whatever the delay before exit. Here the client stays open until
+ * {@code close()} has published; the publishes are blocking {@code CreateTimeSeries} calls, so {@code close()}
+ * returns once Cloud Monitoring has answered.
+ */
+public class FlushingStackdriverMeterRegistry extends StackdriverMeterRegistry {
+
+    private volatile boolean closing;
+
+    public FlushingStackdriverMeterRegistry(StackdriverConfig config, Clock clock) {
+        super(config, clock);
+    }
+
+    @Override
+    public void stop() {
+        if (!closing) {
+            super.stop();
+        }
+    }
+
+    @Override
+    public void close() {
+        closing = true;
+        try {
+            super.close();
+        } finally {
+            closing = false;
+            super.stop();
+        }
+    }
+}
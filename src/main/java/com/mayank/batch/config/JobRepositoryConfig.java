@@ -0,0 +1,110 @@
+package com.mayank.batch.config;
+
+import com.mayank.batch.repository.CoalescingJobRepository;
+import com.mayank.batch.repository.ResourcelessJobRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.batch.BatchDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.lang.NonNull;
+
+/**
+ * Where and how often the JobRepository writes, selected by {@code batch.metadata.mode}:
+ * <ul>
+ *     <li>{@code jdbc} - every chunk commit writes its step execution and checkpoint in the chunk transaction; a
+ *     restart resumes right after the last committed chunk.</li>
+ *     <li>{@code coalesced} - those writes are made every {@code batch.metadata.coalesce.chunks} chunks (or
+ *     {@code batch.metadata.coalesce.maxMillis}), still in the chunk transaction; a restart resumes after the last
+ *     written checkpoint and loads the chunks committed since again, which the upserting writers absorb.</li>
+ *     <li>{@code resourceless} - nothing is written; no restart, see {@link ResourcelessJobRepository}.</li>
+ * </ul>
+ * With {@code batch.metadata.url} the {@code BATCH_*} tables live in another database and checkpoints are written
+ * once the chunk has committed in the job's database, so a restart may load the last chunk again but never skips one.
+ * Both the separate store and {@code resourceless} rule out {@code partition.remote.enabled}, whose claim query
+ * joins {@code partition_work} to {@code batch_job_execution}.
+ */
+@Configuration
+public class JobRepositoryConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(JobRepositoryConfig.class);
+
+    @Bean
+    static BeanPostProcessor jobRepositoryModePostProcessor(@Value("${batch.metadata.mode:jdbc}") String mode,
+                                                            @Value("${batch.metadata.coalesce.chunks:10}") int coalesceChunks,
+                                                            @Value("${batch.metadata.coalesce.maxMillis:5000}") long coalesceMillis,
+                                                            @Value("${batch.metadata.url:}") String metadataUrl,
+                                                            @Value("${partition.remote.enabled:false}") boolean remotePartitions,
+                                                            ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (!(bean instanceof JobRepository jobRepository) || bean instanceof CoalescingJobRepository) {
+                    return bean;
+                }
+                boolean separateStore = !metadataUrl.isBlank();
+                if (remotePartitions && (separateStore || "resourceless".equalsIgnoreCase(mode))) {
+                    throw new IllegalStateException("partition.remote.enabled needs the JobRepository in the job's "
+                            + "database (batch.metadata.mode jdbc or coalesced, no batch.metadata.url)");
+                }
+                if ("resourceless".equalsIgnoreCase(mode)) {
+                    log.info("JobRepository is resourceless: no metadata is written and the job cannot be restarted");
+                    return new ResourcelessJobRepository();
+                }
+                boolean coalesced = "coalesced".equalsIgnoreCase(mode);
+                if (coalesced) {
+                    log.info("Writing step checkpoints every {} chunks or {} ms", coalesceChunks, coalesceMillis);
+                }
+                return new CoalescingJobRepository(jobRepository, coalesced ? coalesceChunks : 1,
+                        coalesced ? coalesceMillis : 0, separateStore, registry.getObject());
+            }
+        };
+    }
+
+    /**
+     * Moves the JobRepository to {@code batch.metadata.url}. Declaring a second DataSource turns off Boot's own, so
+     * the job's DataSource is declared here the way Boot would, from {@code spring.datasource.*}.
+     */
+    @Configuration
+    @ConditionalOnExpression("'${batch.metadata.url:}' != ''")
+    static class SeparateMetadataStoreConfig {
+
+        @Bean
+        @Primary
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource dataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean
+        @BatchDataSource
+        public HikariDataSource batchDataSource(@Value("${batch.metadata.url}") String url,
+                                                @Value("${batch.metadata.username:}") String username,
+                                                @Value("${batch.metadata.password:}") String password,
+                                                @Value("${batch.metadata.poolSize:0}") int poolSize,
+                                                @Value("${partition.grid:4}") int gridSize) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("batch-metadata");
+            // One connection per running partition plus the manager step
+            dataSource.setMaximumPoolSize(poolSize > 0 ? poolSize : gridSize + 1);
+            log.info("JobRepository tables in {}", url);
+            return dataSource;
+        }
+    }
+}
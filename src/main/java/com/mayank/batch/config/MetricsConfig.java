@@ -1,7 +1,14 @@
 package com.mayank.batch.config;
 
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.stackdriver.StackdriverConfig;
+import io.micrometer.stackdriver.StackdriverMeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,10 +22,34 @@ public class MetricsConfig {
                 .register(registry);
     }
 
+    /**
+     * Publishes p50/p95/p99 and a Prometheus histogram for the per-partition step timers
+     * ({@code batch.step.duration.seconds}) and the per-chunk read/process/write timers ({@code batch.chunk.*}).
+     */
     @Bean
-    public Timer batchStepDurationTimer(MeterRegistry registry) {
-        return Timer.builder("batch.step.duration.seconds")
-                .description("Time taken for batch step execution")
-                .register(registry);
+    public MeterFilter batchTimerDistributionFilter() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() == Meter.Type.TIMER
+                        && (id.getName().startsWith("batch.chunk.") || id.getName().equals("batch.step.duration.seconds"))) {
+                    return DistributionStatisticConfig.builder()
+                            .percentiles(0.5, 0.95, 0.99)
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+    /**
+     * Replaces the auto-configured registry so that closing it at exit delivers the final metrics.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "management.stackdriver.metrics.export", name = "enabled", matchIfMissing = true)
+    public StackdriverMeterRegistry stackdriverMeterRegistry(StackdriverConfig stackdriverConfig, Clock clock) {
+        return new FlushingStackdriverMeterRegistry(stackdriverConfig, clock);
     }
 }
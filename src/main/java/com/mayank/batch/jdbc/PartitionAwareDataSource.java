@@ -0,0 +1,308 @@
+package com.mayank.batch.jdbc;
+
+import com.mayank.batch.listener.PartitionSlotListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps the job's DataSource to measure, per partition, how long connections take to get and how long statements
+ * take to run, and to optionally pin one connection to a partition for the whole step.
+ * <p>
+ * The partition is the step running on the calling thread, identified by its {@link PartitionSlotListener} slot
+ * ({@code main} elsewhere): partition ids are unbounded under dynamic or remote partitioning, slots are bounded by the
+ * partitions running at once, and the next partition in a slot carries on its meters. Meters, all tagged
+ * {@code slot}:
+ * <ul>
+ *     <li>{@code batch.db.connection.acquire} - time spent in the pool's {@code getConnection()}, i.e. waiting for a
+ *     free connection when the pool is exhausted.</li>
+ *     <li>{@code batch.db.statement.duration} - time in {@code execute*} calls (a {@code COPY} stream of the copy
+ *     writer and fetching further rows of a result set are not included).</li>
+ *     <li>{@code batch.db.connections.active} - connections the partition has checked out, and
+ *     {@code batch.db.connections.idle} - a pinned connection not currently in use.</li>
+ * </ul>
+ * With {@link #pin()} the calling thread gets the same physical connection until {@link #unpin()}; a nested request
+ * while it is in use, and requests after it broke, go to the pool as usual.
+ */
+public class PartitionAwareDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionAwareDataSource.class);
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private final ObjectProvider<PartitionSlotListener> slotsProvider;
+    private volatile PartitionSlotListener slots;
+    private final Map<String, PartitionMeters> meters = new ConcurrentHashMap<>();
+    private final ThreadLocal<Pin> pins = new ThreadLocal<>();
+    private final LongAdder runAcquireNanos = new LongAdder();
+    private final LongAdder runStatementNanos = new LongAdder();
+
+    public PartitionAwareDataSource(DataSource targetDataSource, ObjectProvider<MeterRegistry> registryProvider,
+                                    ObjectProvider<PartitionSlotListener> slotsProvider) {
+        super(targetDataSource);
+        // Resolved on first use: the registry's binders look the DataSource up themselves
+        this.registryProvider = registryProvider;
+        this.slotsProvider = slotsProvider;
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        PartitionMeters partition = meters();
+        Pin pin = pins.get();
+        if (pin != null && !pin.inUse && !pin.broken) {
+            pin.inUse = true;
+            return wrap(pin.connection, partition, pin);
+        }
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection();
+        partition.acquired(System.nanoTime() - start);
+        return wrap(connection, partition, null);
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+        PartitionMeters partition = meters();
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        partition.acquired(System.nanoTime() - start);
+        return wrap(connection, partition, null);
+    }
+
+    /**
+     * Takes a connection from the pool and keeps it for the calling thread until {@link #unpin()}.
+     */
+    public void pin() throws SQLException {
+        if (pins.get() != null) {
+            return;
+        }
+        PartitionMeters partition = meters();
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection();
+        partition.acquired(System.nanoTime() - start);
+        pins.set(new Pin(connection, partition));
+        partition.pinned.incrementAndGet();
+    }
+
+    /**
+     * Returns the calling thread's pinned connection to the pool.
+     */
+    public void unpin() {
+        Pin pin = pins.get();
+        if (pin == null) {
+            return;
+        }
+        pins.remove();
+        if (pin.connection != null) {
+            close(pin);
+        }
+    }
+
+    /**
+     * Clears the pool wait and SQL time accumulated since the last call, across all partitions.
+     */
+    public void resetRunStatistics() {
+        runAcquireNanos.reset();
+        runStatementNanos.reset();
+    }
+
+    /**
+     * Time all threads spent waiting for connections since {@link #resetRunStatistics()}.
+     */
+    public long runAcquireNanos() {
+        return runAcquireNanos.sum();
+    }
+
+    /**
+     * Time all threads spent in statement execution since {@link #resetRunStatistics()}.
+     */
+    public long runStatementNanos() {
+        return runStatementNanos.sum();
+    }
+
+    private PartitionMeters meters() {
+        PartitionSlotListener partitionSlots = slots;
+        if (partitionSlots == null) {
+            partitionSlots = slotsProvider.getIfAvailable();
+            slots = partitionSlots;
+        }
+        String slot = partitionSlots == null ? PartitionSlotListener.NO_SLOT : partitionSlots.currentSlot();
+        return meters.computeIfAbsent(slot, PartitionMeters::new);
+    }
+
+    private Connection wrap(Connection connection, PartitionMeters partition, Pin pin) {
+        partition.active.incrementAndGet();
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        if (!closed[0]) {
+                            closed[0] = true;
+                            partition.active.decrementAndGet();
+                            release(connection, pin);
+                        }
+                        yield null;
+                    }
+                    case "isClosed" -> closed[0] || connection.isClosed();
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Slot " + partition.slot + " " + connection;
+                    case "createStatement", "prepareStatement", "prepareCall" -> Proxy.newProxyInstance(
+                            Connection.class.getClassLoader(), new Class<?>[]{method.getReturnType()},
+                            new StatementHandler((Statement) invoke(connection, method, args, pin), partition, pin));
+                    default -> invoke(connection, method, args, pin);
+                });
+    }
+
+    private void release(Connection connection, Pin pin) throws SQLException {
+        if (pin == null) {
+            connection.close();
+            return;
+        }
+        pin.inUse = false;
+        if (pin.broken && pins.get() == pin) {
+            log.warn("Pinned connection of slot {} failed, using the pool for the rest of the step",
+                    pin.partition.slot);
+            close(pin);
+            pins.set(Pin.BROKEN);
+        }
+    }
+
+    private static void close(Pin pin) {
+        pin.partition.pinned.decrementAndGet();
+        try {
+            pin.connection.close();
+        } catch (SQLException e) {
+            log.warn("Failed to release pinned connection: {}", e.getMessage());
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args, Pin pin) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            // SQL state class 08: the connection itself is gone, so stop handing it out
+            if (pin != null && e.getCause() instanceof SQLException sql
+                    && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                pin.broken = true;
+            }
+            throw e.getCause();
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final PartitionMeters partition;
+        private final Pin pin;
+
+        StatementHandler(Statement statement, PartitionMeters partition, Pin pin) {
+            this.statement = statement;
+            this.partition = partition;
+            this.pin = pin;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return PartitionAwareDataSource.invoke(statement, method, args, pin);
+            }
+            long start = System.nanoTime();
+            try {
+                return PartitionAwareDataSource.invoke(statement, method, args, pin);
+            } finally {
+                partition.executed(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static final class Pin {
+
+        // Placeholder kept after a failure, so the step is not pinned again
+        static final Pin BROKEN = new Pin(null, null);
+
+        final Connection connection;
+        final PartitionMeters partition;
+        boolean inUse;
+        boolean broken;
+
+        Pin(Connection connection, PartitionMeters partition) {
+            this.connection = connection;
+            this.partition = partition;
+            this.broken = connection == null;
+        }
+    }
+
+    private final class PartitionMeters {
+
+        final String slot;
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger pinned = new AtomicInteger();
+        private Timer acquireTimer;
+        private volatile Timer statementTimer;
+
+        PartitionMeters(String slot) {
+            this.slot = slot;
+        }
+
+        void acquired(long nanos) {
+            runAcquireNanos.add(nanos);
+            register();
+            acquireTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        void executed(long nanos) {
+            runStatementNanos.add(nanos);
+            register();
+            statementTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void register() {
+            if (statementTimer != null) {
+                return;
+            }
+            synchronized (this) {
+                if (statementTimer != null) {
+                    return;
+                }
+                MeterRegistry registry = registryProvider.getObject();
+                acquireTimer = Timer.builder("batch.db.connection.acquire")
+                        .description("Time spent waiting for a pooled connection")
+                        .tag("slot", slot)
+                        .register(registry);
+                Gauge.builder("batch.db.connections.active", active, AtomicInteger::get)
+                        .description("Connections checked out by the partition")
+                        .tag("slot", slot)
+                        .register(registry);
+                Gauge.builder("batch.db.connections.idle", this,
+                                meters -> meters.pinned.get() > 0 && meters.active.get() == 0 ? 1 : 0)
+                        .description("Connections pinned to the partition and not in use")
+                        .tag("slot", slot)
+                        .register(registry);
+                statementTimer = Timer.builder("batch.db.statement.duration")
+                        .description("Time spent executing SQL statements")
+                        .tag("slot", slot)
+                        .register(registry);
+            }
+        }
+    }
+}
@@ -6,34 +6,43 @@ import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.StepExecution;
-import org.springframework.batch.core.annotation.AfterJob;
-import org.springframework.batch.core.annotation.AfterStep;
-import org.springframework.batch.core.annotation.BeforeJob;
-import org.springframework.batch.core.annotation.BeforeStep;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Job and step level metrics. Registered on {@code probeJob} as a job listener and on {@code slaveStep} as a
+ * step listener, so every partition records its own {@code batch.step.duration.seconds} sample. The timer carries a
+ * percentile histogram, so it is tagged with the partition's bounded {@code slot} (see {@link PartitionSlotListener})
+ * rather than its {@code partitionId}. Start times are kept per execution id because partitions run concurrently.
+ */
 @Component
-public class BatchMetricsListener implements JobExecutionListener {
+public class BatchMetricsListener implements JobExecutionListener, StepExecutionListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BatchMetricsListener.class);
 
+    private final MeterRegistry registry;
+    private final PartitionSlotListener partitionSlots;
     private final Counter recordsProcessedCounter;
     private final Counter failureCounter;
     private final Timer jobDurationTimer;
-    private final Timer stepDurationTimer;
 
-    private long jobStartTime;
-    private long stepStartTime;
+    private final Map<Long, Timer.Sample> jobSamples = new ConcurrentHashMap<>();
+    private final Map<Long, Timer.Sample> stepSamples = new ConcurrentHashMap<>();
 
     public BatchMetricsListener(MeterRegistry registry,
                                 @Qualifier("batchJobDurationTimer") Timer jobDurationTimer,
-                                @Qualifier("batchStepDurationTimer") Timer stepDurationTimer) {
+                                PartitionSlotListener partitionSlots) {
+        this.registry = registry;
+        this.partitionSlots = partitionSlots;
+
         this.recordsProcessedCounter = Counter.builder("batch.records.processed")
                 .description("Number of records processed")
                 .register(registry);
@@ -43,37 +52,44 @@ public class BatchMetricsListener implements JobExecutionListener {
                 .register(registry);
 
         this.jobDurationTimer = jobDurationTimer;
-        this.stepDurationTimer = stepDurationTimer;
     }
 
-    @BeforeJob
+    @Override
     public void beforeJob(JobExecution jobExecution) {
-        jobStartTime = System.currentTimeMillis();
+        jobSamples.put(jobExecution.getId(), Timer.start(registry));
     }
 
-    @AfterJob
+    @Override
     public void afterJob(JobExecution jobExecution) {
-        long duration = System.currentTimeMillis() - jobStartTime;
-        jobDurationTimer.record(duration, TimeUnit.MILLISECONDS);
+        Timer.Sample sample = jobSamples.remove(jobExecution.getId());
+        if (sample != null) {
+            sample.stop(jobDurationTimer);
+        }
         if (jobExecution.getStatus() == BatchStatus.COMPLETED) {
             LOGGER.info("Mayank Success");
         }
     }
 
-    @BeforeStep
+    @Override
     public void beforeStep(StepExecution stepExecution) {
-        stepStartTime = System.currentTimeMillis();
+        stepSamples.put(stepExecution.getId(), Timer.start(registry));
     }
 
-    @AfterStep
-    public void afterStep(StepExecution stepExecution) {
-        long duration = System.currentTimeMillis() - stepStartTime;
-        stepDurationTimer.record(duration, TimeUnit.MILLISECONDS);
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        Timer.Sample sample = stepSamples.remove(stepExecution.getId());
+        if (sample != null) {
+            sample.stop(Timer.builder("batch.step.duration.seconds")
+                    .description("Time taken for batch step execution")
+                    .tag("slot", partitionSlots.slotOf(stepExecution))
+                    .register(registry));
+        }
 
         // Update metrics
         recordsProcessedCounter.increment(stepExecution.getWriteCount());
         if (stepExecution.getFailureExceptions() != null && !stepExecution.getFailureExceptions().isEmpty()) {
             failureCounter.increment(stepExecution.getFailureExceptions().size());
         }
+        return stepExecution.getExitStatus();
     }
 }
@@ -0,0 +1,228 @@
+package com.mayank.batch.listener;
+
+import com.mayank.batch.model.Record;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-chunk latency of every partition, split into stages so a run can be attributed to I/O, CPU or the database:
+ * <ul>
+ *     <li>{@code batch.chunk.duration} - the whole chunk, including the commit.</li>
+ *     <li>{@code batch.chunk.read.duration} / {@code batch.chunk.process.duration} - total time spent reading and
+ *     processing the chunk's items.</li>
+ *     <li>{@code batch.chunk.write.duration} - the writer call for the chunk.</li>
+ *     <li>{@code batch.records.per.second} - records written per second over the last
+ *     {@value #RATE_WINDOW_SECONDS} seconds, across all partitions.</li>
+ * </ul>
+ * Partitions run on their own threads, so stage start times are kept per thread. Percentiles and histograms for
+ * the timers are configured in {@code MetricsConfig}.
+ * <p>
+ * Chunk durations are also kept in a private timer that is never decayed, so the local benchmark runner can take
+ * exact per-run percentiles with {@link #resetRunStatistics()} and {@link #runSnapshot()}.
+ */
+@Component
+public class ChunkMetricsListener implements ChunkListener, ItemReadListener<Record>,
+        ItemProcessListener<Record, Record>, ItemWriteListener<Record> {
+
+    private static final int RATE_WINDOW_SECONDS = 10;
+
+    private final ThreadLocal<ChunkTiming> timing = ThreadLocal.withInitial(ChunkTiming::new);
+    private final Timer chunkTimer;
+    private final Timer readTimer;
+    private final Timer processTimer;
+    private final Timer writeTimer;
+
+    // One slot per second plus the one currently filling; a slot is replaced as a whole when its second has passed
+    private final AtomicReferenceArray<WrittenSecond> writtenPerSecond =
+            new AtomicReferenceArray<>(RATE_WINDOW_SECONDS + 1);
+
+    private final SimpleMeterRegistry runRegistry = new SimpleMeterRegistry();
+    private volatile Timer runTimer;
+
+    public ChunkMetricsListener(MeterRegistry registry) {
+        this.chunkTimer = Timer.builder("batch.chunk.duration")
+                .description("Time taken to read, process and write one chunk")
+                .register(registry);
+        this.readTimer = Timer.builder("batch.chunk.read.duration")
+                .description("Time spent reading the items of one chunk")
+                .register(registry);
+        this.processTimer = Timer.builder("batch.chunk.process.duration")
+                .description("Time spent processing the items of one chunk")
+                .register(registry);
+        this.writeTimer = Timer.builder("batch.chunk.write.duration")
+                .description("Time taken to write one chunk")
+                .register(registry);
+        Gauge.builder("batch.records.per.second", this, ChunkMetricsListener::recordsPerSecond)
+                .description("Records written per second over the last " + RATE_WINDOW_SECONDS + " seconds")
+                .register(registry);
+        for (int i = 0; i < writtenPerSecond.length(); i++) {
+            writtenPerSecond.set(i, new WrittenSecond(Long.MIN_VALUE));
+        }
+        this.runTimer = newRunTimer();
+    }
+
+    @Override
+    public void beforeChunk(@NonNull ChunkContext context) {
+        ChunkTiming chunk = timing.get();
+        chunk.start = System.nanoTime();
+        chunk.readNanos = 0;
+        chunk.processNanos = 0;
+    }
+
+    @Override
+    public void afterChunk(@NonNull ChunkContext context) {
+        recordChunk();
+    }
+
+    @Override
+    public void afterChunkError(@NonNull ChunkContext context) {
+        recordChunk();
+    }
+
+    @Override
+    public void beforeRead() {
+        timing.get().stageStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterRead(@NonNull Record item) {
+        ChunkTiming chunk = timing.get();
+        chunk.readNanos += System.nanoTime() - chunk.stageStart;
+    }
+
+    @Override
+    public void onReadError(@NonNull Exception ex) {
+        ChunkTiming chunk = timing.get();
+        chunk.readNanos += System.nanoTime() - chunk.stageStart;
+    }
+
+    @Override
+    public void beforeProcess(@NonNull Record item) {
+        timing.get().stageStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterProcess(@NonNull Record item, Record result) {
+        ChunkTiming chunk = timing.get();
+        chunk.processNanos += System.nanoTime() - chunk.stageStart;
+    }
+
+    @Override
+    public void onProcessError(@NonNull Record item, @NonNull Exception e) {
+        ChunkTiming chunk = timing.get();
+        chunk.processNanos += System.nanoTime() - chunk.stageStart;
+    }
+
+    @Override
+    public void beforeWrite(@NonNull Chunk<? extends Record> items) {
+        timing.get().stageStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterWrite(@NonNull Chunk<? extends Record> items) {
+        writeTimer.record(System.nanoTime() - timing.get().stageStart, TimeUnit.NANOSECONDS);
+        countWritten(items.size());
+    }
+
+    @Override
+    public void onWriteError(@NonNull Exception exception, @NonNull Chunk<? extends Record> items) {
+        writeTimer.record(System.nanoTime() - timing.get().stageStart, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized void resetRunStatistics() {
+        runRegistry.clear();
+        runTimer = newRunTimer();
+    }
+
+    public HistogramSnapshot runSnapshot() {
+        return runTimer.takeSnapshot();
+    }
+
+    private void recordChunk() {
+        ChunkTiming chunk = timing.get();
+        if (chunk.start == 0) {
+            return;
+        }
+        long duration = System.nanoTime() - chunk.start;
+        chunk.start = 0;
+        chunkTimer.record(duration, TimeUnit.NANOSECONDS);
+        runTimer.record(duration, TimeUnit.NANOSECONDS);
+        readTimer.record(chunk.readNanos, TimeUnit.NANOSECONDS);
+        if (chunk.processNanos > 0) {
+            processTimer.record(chunk.processNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void countWritten(int count) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        int slot = (int) Math.floorMod(second, (long) writtenPerSecond.length());
+        WrittenSecond current = writtenPerSecond.get(slot);
+        while (current.second < second) {
+            WrittenSecond next = new WrittenSecond(second);
+            if (writtenPerSecond.compareAndSet(slot, current, next)) {
+                current = next;
+            } else {
+                current = writtenPerSecond.get(slot);
+            }
+        }
+        // A slot already on a later second means this count is older than the window
+        if (current.second == second) {
+            current.written.add(count);
+        }
+    }
+
+    /**
+     * Average over the last {@value #RATE_WINDOW_SECONDS} completed seconds; the current second is still filling.
+     */
+    private double recordsPerSecond() {
+        long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long written = 0;
+        for (int slot = 0; slot < writtenPerSecond.length(); slot++) {
+            WrittenSecond counted = writtenPerSecond.get(slot);
+            if (counted.second < now && counted.second >= now - RATE_WINDOW_SECONDS) {
+                written += counted.written.sum();
+            }
+        }
+        return (double) written / RATE_WINDOW_SECONDS;
+    }
+
+    private Timer newRunTimer() {
+        return Timer.builder("batch.chunk.duration.run")
+                .publishPercentiles(0.5, 0.95)
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(runRegistry);
+    }
+
+    private static final class WrittenSecond {
+        private final long second;
+        private final LongAdder written = new LongAdder();
+
+        private WrittenSecond(long second) {
+            this.second = second;
+        }
+    }
+
+    private static final class ChunkTiming {
+        private long start;
+        private long stageStart;
+        private long readNanos;
+        private long processNanos;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mayank.batch.listener;
+
+import com.mayank.batch.jdbc.PartitionAwareDataSource;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * With {@code db.pool.pinPartitions=true}, holds one connection per partition from before the step opens its reader
+ * until after it finishes, so every chunk transaction of the partition reuses it instead of going back to the pool.
+ * A partition that starts while the pool is exhausted waits here, once, rather than on every chunk.
+ * Registered on {@code slaveStep} when enabled.
+ */
+@Component
+public class ConnectionPinningListener implements StepExecutionListener {
+
+    private final PartitionAwareDataSource dataSource;
+
+    @Value("${db.pool.pinPartitions:false}")
+    private boolean enabled;
+
+    public ConnectionPinningListener(DataSource dataSource) {
+        this.dataSource = dataSource instanceof PartitionAwareDataSource partitionAware ? partitionAware : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled && dataSource != null;
+    }
+
+    @Override
+    public void beforeStep(@NonNull StepExecution stepExecution) {
+        try {
+            dataSource.pin();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to pin a connection for " + stepExecution.getStepName(), e);
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+        dataSource.unpin();
+        return stepExecution.getExitStatus();
+    }
+}
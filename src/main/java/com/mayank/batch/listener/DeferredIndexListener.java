@@ -0,0 +1,91 @@
+package com.mayank.batch.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * With {@code writer.indexMode=deferred}, drops the secondary indexes of {@code processed_record} before the job and
+ * rebuilds them with {@code CREATE INDEX CONCURRENTLY} once it has finished, so a large load maintains only the
+ * primary key. Unique and primary key indexes are never touched.
+ * <p>
+ * The dropped definitions are kept in the job's {@code ExecutionContext} under {@code deferredIndexes} and rebuilt
+ * whatever the job's status. If the process dies in between, {@code db/schema.sql} recreates the indexes on the next
+ * start with SQL initialization enabled.
+ */
+@Component
+public class DeferredIndexListener implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DeferredIndexListener.class);
+
+    private static final String CONTEXT_KEY = "deferredIndexes";
+
+    private static final String SECONDARY_INDEXES_SQL = """
+            SELECT quote_ident(n.nspname) || '.' || quote_ident(c.relname) AS name,
+                   pg_get_indexdef(x.indexrelid) AS definition
+            FROM pg_index x
+            JOIN pg_class c ON c.oid = x.indexrelid
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE x.indrelid = 'processed_record'::regclass
+              AND NOT x.indisunique
+              AND NOT x.indisprimary
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${writer.indexMode:online}")
+    private String indexMode;
+
+    public DeferredIndexListener(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        if (!"deferred".equalsIgnoreCase(indexMode)) {
+            return;
+        }
+        List<String> definitions = new ArrayList<>();
+        try {
+            for (Map<String, Object> index : jdbcTemplate.queryForList(SECONDARY_INDEXES_SQL)) {
+                jdbcTemplate.execute("DROP INDEX IF EXISTS " + index.get("name"));
+                definitions.add((String) index.get("definition"));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to drop secondary indexes of processed_record", e);
+        } finally {
+            // Whatever was dropped before a failure is still rebuilt after the job
+            jobExecution.getExecutionContext().putString(CONTEXT_KEY, String.join("\n", definitions));
+        }
+        log.info("Dropped {} secondary indexes of processed_record until the job has finished", definitions.size());
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        String saved = jobExecution.getExecutionContext().getString(CONTEXT_KEY, "");
+        if (saved.isEmpty()) {
+            return;
+        }
+        for (String definition : saved.split("\n")) {
+            long start = System.nanoTime();
+            String concurrent = definition
+                    .replaceFirst("^CREATE INDEX ", "CREATE INDEX CONCURRENTLY IF NOT EXISTS ");
+            try {
+                jdbcTemplate.execute(concurrent);
+                log.info("Rebuilt index in {} ms: {}", (System.nanoTime() - start) / 1_000_000, concurrent);
+            } catch (Exception e) {
+                // Keep going: the other indexes are still worth rebuilding
+                log.error("Failed to rebuild index, run it manually: {}", definition, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mayank.batch.listener;
+
+import com.mayank.batch.model.Record;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * How much of a short-lived container's run is spent outside the job, as two timers recorded once per process:
+ * <ul>
+ *     <li>{@code batch.startup.to.first.record} - from JVM start to the first chunk written, so JVM boot, context
+ *     refresh, partitioning and the first chunk's read and process.</li>
+ *     <li>{@code batch.last.record.to.exit} - from the last chunk written to the start of the final metrics flush
+ *     (job listeners, index rebuilds, context work before exit), recorded by {@link #recordExit()}.</li>
+ * </ul>
+ * Registered on {@code slaveStep} as a write listener.
+ */
+@Component
+public class LifecycleMetricsListener implements ItemWriteListener<Record> {
+
+    private final Timer startupTimer;
+    private final Timer exitTimer;
+    private final AtomicBoolean firstWritten = new AtomicBoolean();
+    private volatile long lastWriteNanos;
+
+    public LifecycleMetricsListener(MeterRegistry registry) {
+        this.startupTimer = Timer.builder("batch.startup.to.first.record")
+                .description("Time from JVM start to the first chunk written")
+                .register(registry);
+        this.exitTimer = Timer.builder("batch.last.record.to.exit")
+                .description("Time from the last chunk written to the final metrics flush")
+                .register(registry);
+    }
+
+    @Override
+    public void afterWrite(@NonNull Chunk<? extends Record> items) {
+        lastWriteNanos = System.nanoTime();
+        if (!items.isEmpty() && firstWritten.compareAndSet(false, true)) {
+            startupTimer.record(ManagementFactory.getRuntimeMXBean().getUptime(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Records {@code batch.last.record.to.exit}, if anything was written; called just before the metrics are flushed.
+     */
+    public void recordExit() {
+        if (firstWritten.get()) {
+            exitTimer.record(System.nanoTime() - lastWriteNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
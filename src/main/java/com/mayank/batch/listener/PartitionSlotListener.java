@@ -0,0 +1,71 @@
+package com.mayank.batch.listener;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every running partition the lowest free slot number, which it keeps until it finishes, so per-partition
+ * meters can be tagged {@code slot} instead of {@code partitionId}. Dynamic and remote partitioning create any number
+ * of partition ids over a run, but never more slots than partitions running at once, so the tagged meters stay
+ * bounded. Registered on {@code slaveStep} as its first listener, so the slot is still held while the others run
+ * their {@code afterStep}.
+ */
+@Component
+public class PartitionSlotListener implements StepExecutionListener {
+
+    /**
+     * Slot reported outside a partition step, e.g. for the manager step.
+     */
+    public static final String NO_SLOT = "main";
+
+    private final BitSet used = new BitSet();
+    private final Map<Long, Integer> slots = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeStep(@NonNull StepExecution stepExecution) {
+        int slot;
+        synchronized (used) {
+            slot = used.nextClearBit(0);
+            used.set(slot);
+        }
+        slots.put(stepExecution.getId(), slot);
+    }
+
+    @Override
+    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+        Integer slot = slots.remove(stepExecution.getId());
+        if (slot != null) {
+            synchronized (used) {
+                used.clear(slot);
+            }
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    /**
+     * @return the slot of {@code stepExecution}, or {@link #NO_SLOT} if it is not a running partition
+     */
+    public String slotOf(StepExecution stepExecution) {
+        Integer slot = stepExecution == null || stepExecution.getId() == null
+                ? null
+                : slots.get(stepExecution.getId());
+        return slot == null ? NO_SLOT : String.valueOf(slot);
+    }
+
+    /**
+     * @return the slot of the partition running on the calling thread
+     */
+    public String currentSlot() {
+        StepContext context = StepSynchronizationManager.getContext();
+        return slotOf(context == null ? null : context.getStepExecution());
+    }
+}
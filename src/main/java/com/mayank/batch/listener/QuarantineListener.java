@@ -0,0 +1,149 @@
+package com.mayank.batch.listener;
+
+import com.mayank.batch.model.Record;
+import com.mayank.batch.processor.InvalidRecordException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes the items skipped with {@code fault.mode=quarantine} to {@code rejected_record}, with the stage that rejected
+ * them and why.
+ * <p>
+ * Skips are buffered per chunk and inserted as one JDBC batch just before the chunk's transaction commits, so the
+ * rejected rows commit or roll back together with the rows written. Counts {@code batch.items.skipped} (tagged
+ * {@code stage}) and {@code batch.items.quarantined}.
+ */
+@Component
+public class QuarantineListener implements SkipListener<Record, Record> {
+
+    private static final Logger log = LoggerFactory.getLogger(QuarantineListener.class);
+
+    private static final String INSERT_SQL = """
+            INSERT INTO rejected_record (record_id, payload, stage, reason, partition_id, rejected_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry registry;
+    private final Counter quarantinedCounter;
+    private final ThreadLocal<List<Rejection>> pending = new ThreadLocal<>();
+
+    public QuarantineListener(DataSource dataSource, MeterRegistry registry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.registry = registry;
+        this.quarantinedCounter = Counter.builder("batch.items.quarantined")
+                .description("Rejected items stored in rejected_record")
+                .register(registry);
+    }
+
+    @Override
+    public void onSkipInRead(@NonNull Throwable t) {
+        if (t instanceof InvalidRecordException invalid) {
+            // Validated on the pipeline thread and handed over as a read failure
+            reject(invalid.getRecord(), "process", t);
+        } else if (t instanceof FlatFileParseException parse) {
+            reject(null, parse.getInput(), "read", t);
+        } else {
+            reject(null, null, "read", t);
+        }
+    }
+
+    @Override
+    public void onSkipInProcess(@NonNull Record item, @NonNull Throwable t) {
+        reject(item, "process", t);
+    }
+
+    @Override
+    public void onSkipInWrite(@NonNull Record item, @NonNull Throwable t) {
+        reject(item, "write", t);
+    }
+
+    private void reject(Record record, String stage, Throwable t) {
+        reject(record == null ? null : record.getId(), record == null ? null : record.getPayload(), stage, t);
+    }
+
+    private void reject(Long recordId, String payload, String stage, Throwable t) {
+        Counter.builder("batch.items.skipped")
+                .description("Items skipped instead of failing or replaying their chunk")
+                .tag("stage", stage)
+                .register(registry)
+                .increment();
+        log.debug("Quarantining record {} rejected in {}: {}", recordId, stage, t.getMessage());
+
+        Rejection rejection = new Rejection(recordId, payload, stage, reason(t), partitionId());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(rejection));
+            return;
+        }
+        List<Rejection> rejections = pending.get();
+        if (rejections == null) {
+            List<Rejection> buffer = new ArrayList<>();
+            pending.set(buffer);
+            rejections = buffer;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(buffer);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    pending.remove();
+                }
+            });
+        }
+        rejections.add(rejection);
+    }
+
+    private void insert(List<Rejection> rejections) {
+        if (rejections.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, rejections, rejections.size(), (ps, rejection) -> {
+            ps.setObject(1, rejection.recordId());
+            ps.setString(2, rejection.payload());
+            ps.setString(3, rejection.stage());
+            ps.setString(4, rejection.reason());
+            ps.setString(5, rejection.partitionId());
+            ps.setTimestamp(6, now);
+        });
+        quarantinedCounter.increment(rejections.size());
+    }
+
+    private static String reason(Throwable t) {
+        Throwable root = t;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root == t ? String.valueOf(t.getMessage())
+                : t.getMessage() + ": " + root.getMessage();
+        return message.length() > 2000 ? message.substring(0, 2000) : message;
+    }
+
+    private static String partitionId() {
+        StepContext context = StepSynchronizationManager.getContext();
+        return context == null ? null
+                : context.getStepExecution().getExecutionContext().getString("partitionId", null);
+    }
+
+    private record Rejection(Long recordId, String payload, String stage, String reason, String partitionId) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.mayank.batch.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * Counts retries of {@code slaveStep}'s fault-tolerant chunk processing:
+ * <ul>
+ *     <li>{@code batch.retry.errors} - failed attempts, tagged with the {@code sqlState} of the underlying
+ *     {@link SQLException} ({@code 40P01} for deadlocks, {@code 55P03} for lock timeouts, {@code none} when the
+ *     failure is not a database error).</li>
+ *     <li>{@code batch.retry.recovered} - operations that succeeded after at least one failed attempt.</li>
+ *     <li>{@code batch.retry.exhausted} - operations that still failed after the last attempt.</li>
+ * </ul>
+ */
+@Component
+public class RetryMetricsListener implements RetryListener {
+
+    private final MeterRegistry registry;
+    private final Counter recoveredCounter;
+    private final Counter exhaustedCounter;
+
+    public RetryMetricsListener(MeterRegistry registry) {
+        this.registry = registry;
+        this.recoveredCounter = Counter.builder("batch.retry.recovered")
+                .description("Retried operations that eventually succeeded")
+                .register(registry);
+        this.exhaustedCounter = Counter.builder("batch.retry.exhausted")
+                .description("Retried operations that failed on their last attempt")
+                .register(registry);
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                 Throwable throwable) {
+        Counter.builder("batch.retry.errors")
+                .description("Failed attempts of retried operations")
+                .tag("sqlState", sqlState(throwable))
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                               Throwable throwable) {
+        if (throwable != null) {
+            exhaustedCounter.increment();
+        } else if (context.getRetryCount() > 0) {
+            recoveredCounter.increment();
+        }
+    }
+
+    private static String sqlState(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null) {
+                return sql.getSQLState();
+            }
+        }
+        return "none";
+    }
+}
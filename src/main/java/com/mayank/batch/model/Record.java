@@ -6,6 +6,7 @@ public class Record {
     private Long id;
     private String payload;
     private LocalDateTime createdAt;
+    private Long fingerprint;
 
     public Long getId() {
         return id;
@@ -30,4 +31,12 @@ public class Record {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Long getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(Long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
 }
@@ -0,0 +1,87 @@
+package com.mayank.batch.partitioner;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Fixed-size uniform sample of the ids seen in one streaming pass (reservoir sampling), used as a quantile sketch
+ * to cut id ranges holding similar numbers of rows whatever the id distribution or file order.
+ */
+final class IdSample {
+
+    private final long[] reservoir;
+    private final SplittableRandom random;
+    private int size;
+    private long seen;
+    private boolean sorted;
+
+    IdSample(int capacity, long seed) {
+        this.reservoir = new long[Math.max(1, capacity)];
+        this.random = new SplittableRandom(seed);
+    }
+
+    void add(long id) {
+        seen++;
+        sorted = false;
+        if (size < reservoir.length) {
+            reservoir[size++] = id;
+        } else {
+            long slot = random.nextLong(seen);
+            if (slot < reservoir.length) {
+                reservoir[(int) slot] = id;
+            }
+        }
+    }
+
+    long seen() {
+        return seen;
+    }
+
+    /**
+     * The first id of each of partitions {@code 1..parts-1}, ascending and distinct; fewer when the sample has fewer
+     * distinct ids than partitions.
+     */
+    long[] cutPoints(int parts) {
+        sort();
+        long[] cuts = new long[Math.max(0, parts - 1)];
+        int count = 0;
+        for (int i = 1; i < parts && size > 0; i++) {
+            long cut = reservoir[(int) ((long) size * i / parts)];
+            if (cut > reservoir[0] && (count == 0 || cut > cuts[count - 1])) {
+                cuts[count++] = cut;
+            }
+        }
+        return Arrays.copyOf(cuts, count);
+    }
+
+    /**
+     * Estimated number of ids seen in {@code [from, to]}.
+     */
+    long estimate(long from, long to) {
+        if (size == 0) {
+            return 0L;
+        }
+        sort();
+        int low = lowerBound(from);
+        int high = to == Long.MAX_VALUE ? size : lowerBound(to + 1);
+        return Math.round((double) (high - low) * seen / size);
+    }
+
+    private int lowerBound(long id) {
+        int index = Arrays.binarySearch(reservoir, 0, size, id);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && reservoir[index - 1] == id) {
+            index--;
+        }
+        return index;
+    }
+
+    private void sort() {
+        if (!sorted) {
+            Arrays.sort(reservoir, 0, size);
+            sorted = true;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.mayank.batch.partitioner;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@code partition_work} coordination table of {@code partition.remote.enabled=true}: one row per partition
+ * step execution, moving from {@code PENDING} to {@code CLAIMED} (with a heartbeat) to {@code DONE} or
+ * {@code FAILED}. It lives in the same Postgres as the JobRepository, so a worker only needs the database to find work.
+ * <p>
+ * Claims use {@code FOR UPDATE SKIP LOCKED}, so concurrent workers never block on, or both take, the same row. Only
+ * rows of job executions that are still {@code STARTED} and whose manager has refreshed its {@code partition_manager}
+ * heartbeat within {@code staleSeconds} can be claimed. A manager that crashed leaves its execution {@code STARTED},
+ * but its heartbeat goes stale, so workers of a later run never pick up partitions nobody will aggregate.
+ */
+@Component
+public class PartitionWorkQueue {
+
+    private static final String DONE = "DONE";
+    private static final String FAILED = "FAILED";
+
+    private static final String MANAGER_HEARTBEAT_SQL = """
+            INSERT INTO partition_manager (job_execution_id, heartbeat_at)
+            VALUES (?, now())
+            ON CONFLICT (job_execution_id) DO UPDATE SET heartbeat_at = now()
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO partition_work (step_execution_id, job_execution_id, status, created_at)
+            VALUES (?, ?, 'PENDING', now())
+            ON CONFLICT (step_execution_id) DO NOTHING
+            """;
+
+    // Rows with step_execution_id % taskCount = taskIndex come first, so tasks mostly take disjoint partitions
+    // and only steal each other's work once their own share is gone
+    private static final String CLAIM_SQL = """
+            UPDATE partition_work
+            SET status = 'CLAIMED', claimed_by = ?, claimed_at = now(), heartbeat_at = now()
+            WHERE step_execution_id = (
+                SELECT w.step_execution_id
+                FROM partition_work w
+                JOIN batch_job_execution e ON e.job_execution_id = w.job_execution_id
+                JOIN partition_manager m ON m.job_execution_id = w.job_execution_id
+                WHERE w.status = 'PENDING'
+                  AND e.status = 'STARTED'
+                  AND m.heartbeat_at >= now() - make_interval(secs => ?)
+                  AND (?::bigint IS NULL OR w.job_execution_id = ?::bigint)
+                ORDER BY CASE WHEN mod(w.step_execution_id, ?) = ? THEN 0 ELSE 1 END, w.step_execution_id
+                LIMIT 1
+                FOR UPDATE OF w SKIP LOCKED)
+            RETURNING step_execution_id, job_execution_id
+            """;
+
+    private static final String PENDING_SQL = """
+            SELECT count(*)
+            FROM partition_work w
+            JOIN batch_job_execution e ON e.job_execution_id = w.job_execution_id
+            JOIN partition_manager m ON m.job_execution_id = w.job_execution_id
+            WHERE w.status = 'PENDING'
+              AND e.status = 'STARTED'
+              AND m.heartbeat_at >= now() - make_interval(secs => ?)
+            """;
+
+    private static final String RELEASE_STALE_SQL = """
+            UPDATE partition_work
+            SET status = 'FAILED', finished_at = now()
+            WHERE job_execution_id = ?
+              AND status = 'CLAIMED'
+              AND heartbeat_at < now() - make_interval(secs => ?)
+            RETURNING step_execution_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PartitionWorkQueue(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Publishes the partitions of a manager step, with a first manager heartbeat for their job execution. Already
+     * published partitions are left as they are.
+     */
+    public void offer(long jobExecutionId, Collection<StepExecution> partitions) {
+        managerHeartbeat(jobExecutionId);
+        List<Object[]> rows = new ArrayList<>(partitions.size());
+        for (StepExecution partition : partitions) {
+            rows.add(new Object[]{partition.getId(), partition.getJobExecutionId()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    /**
+     * Tells workers that the manager of {@code jobExecutionId} is still waiting for its partitions.
+     */
+    public void managerHeartbeat(long jobExecutionId) {
+        jdbcTemplate.update(MANAGER_HEARTBEAT_SQL, jobExecutionId);
+    }
+
+    /**
+     * Claims one pending partition, preferring the ones assigned to {@code taskIndex}.
+     *
+     * @param jobExecutionId only claim partitions of this job execution, or {@code null} for any running job
+     * @param staleSeconds   skip job executions whose manager heartbeat is older than this
+     * @return {@code {stepExecutionId, jobExecutionId}}, or {@code null} if nothing is pending
+     */
+    public long[] claim(String workerId, Long jobExecutionId, int taskIndex, int taskCount, int staleSeconds) {
+        List<long[]> claimed = jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)},
+                workerId, staleSeconds, jobExecutionId, jobExecutionId, Math.max(1, taskCount), taskIndex);
+        return claimed.isEmpty() ? null : claimed.get(0);
+    }
+
+    public void heartbeat(String workerId) {
+        jdbcTemplate.update("UPDATE partition_work SET heartbeat_at = now() WHERE claimed_by = ? AND status = 'CLAIMED'",
+                workerId);
+    }
+
+    /**
+     * Records the outcome of a claimed partition, unless the manager has given up on it in the meantime.
+     */
+    public void complete(String workerId, long stepExecutionId, boolean succeeded) {
+        jdbcTemplate.update("""
+                UPDATE partition_work SET status = ?, finished_at = now()
+                WHERE step_execution_id = ? AND claimed_by = ? AND status = 'CLAIMED'
+                """, succeeded ? DONE : FAILED, stepExecutionId, workerId);
+    }
+
+    /**
+     * @return whether any running job with a live manager still has partitions nobody has claimed
+     */
+    public boolean hasPending(int staleSeconds) {
+        Long pending = jdbcTemplate.queryForObject(PENDING_SQL, Long.class, staleSeconds);
+        return pending != null && pending > 0;
+    }
+
+    /**
+     * Fails the claimed partitions of a job execution whose worker has not sent a heartbeat for
+     * {@code staleSeconds}.
+     *
+     * @return the step execution ids of the partitions given up on
+     */
+    public List<Long> releaseStale(long jobExecutionId, int staleSeconds) {
+        return jdbcTemplate.queryForList(RELEASE_STALE_SQL, Long.class, jobExecutionId, staleSeconds);
+    }
+}
@@ -0,0 +1,227 @@
+package com.mayank.batch.partitioner;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@code slaveStep} for partitions claimed from {@link PartitionWorkQueue} when
+ * {@code partition.remote.enabled=true}.
+ * <p>
+ * Every process started with a {@code partition.remote.taskIndex} above 0 ({@code CLOUD_RUN_TASK_INDEX} on Cloud Run,
+ * {@code JOB_COMPLETION_INDEX} in an indexed Kubernetes Job) is a worker: instead of launching the job it claims
+ * partitions on {@code partition.remote.threads} threads until none is left, or until nothing has shown up for
+ * {@code partition.remote.idleSeconds}. Task 0 launches the job, and its {@link TablePartitionHandler} also drains
+ * partitions here on its own threads.
+ * <p>
+ * Each partition's {@link StepExecution} is loaded from the JobRepository and executed as is, so its status, counts
+ * and failures are reported back through the same tables the manager aggregates from. Claims held by this process get
+ * a heartbeat every quarter of {@code partition.remote.staleSeconds}. Finished partitions are counted in
+ * {@code batch.remote.partitions} (tagged {@code status}).
+ */
+@Component
+public class PartitionWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionWorker.class);
+
+    @Value("${partition.remote.enabled:false}")
+    private boolean enabled;
+
+    @Value("${partition.remote.taskIndex:0}")
+    private int taskIndex;
+
+    @Value("${partition.remote.taskCount:1}")
+    private int taskCount;
+
+    @Value("${partition.remote.threads:${partition.grid:4}}")
+    private int threads;
+
+    @Value("${partition.remote.pollMillis:500}")
+    private long pollMillis;
+
+    @Value("${partition.remote.idleSeconds:300}")
+    private int idleSeconds;
+
+    @Value("${partition.remote.staleSeconds:60}")
+    private int staleSeconds;
+
+    private final PartitionWorkQueue queue;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final Step step;
+    private final MeterRegistry registry;
+    private final String workerId;
+    private ScheduledExecutorService heartbeat;
+
+    public PartitionWorker(PartitionWorkQueue queue,
+                           JobExplorer jobExplorer,
+                           JobRepository jobRepository,
+                           @Qualifier("slaveStep") Step step,
+                           MeterRegistry registry) {
+        this.queue = queue;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.step = step;
+        this.registry = registry;
+        // Container pids are nearly always 1 and HOSTNAME may be missing, so claims are keyed by a random id
+        String instance = System.getenv().getOrDefault("CLOUD_RUN_EXECUTION",
+                System.getenv().getOrDefault("HOSTNAME", "worker"));
+        this.workerId = instance + "-" + UUID.randomUUID();
+    }
+
+    @PostConstruct
+    void startHeartbeat() {
+        if (!enabled) {
+            return;
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, TimeUnit.SECONDS.toMillis(staleSeconds) / 4);
+        heartbeat.scheduleAtFixedRate(() -> {
+            try {
+                queue.heartbeat(workerId);
+            } catch (Exception e) {
+                log.warn("Failed to send partition heartbeat for {}", workerId, e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopHeartbeat() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+    }
+
+    /**
+     * @return whether this process only works on partitions of a job launched by task 0
+     */
+    public boolean isRemoteWorker() {
+        return enabled && taskIndex > 0;
+    }
+
+    /**
+     * Claims and executes partitions of any running job on {@code partition.remote.threads} threads until none is
+     * left. Blocks until every thread has stopped.
+     *
+     * @return the number of partitions that did not complete
+     */
+    public int run() throws InterruptedException {
+        int workers = Math.max(1, threads);
+        log.info("Partition worker {} (task {} of {}) claiming on {} threads",
+                workerId, taskIndex, taskCount, workers);
+        AtomicBoolean sawWork = new AtomicBoolean();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> loops = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                loops.add(executor.submit(() -> drain(null, sawWork, failed)));
+            }
+            for (Future<?> loop : loops) {
+                try {
+                    loop.get();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Failed to run partition worker", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Partition worker {} finished with {} failed partitions", workerId, failed.get());
+        return failed.get();
+    }
+
+    /**
+     * Claims and executes partitions of one job execution until none is pending; used by the manager's own threads.
+     */
+    void drain(long jobExecutionId) {
+        drain(jobExecutionId, new AtomicBoolean(), new AtomicInteger());
+    }
+
+    private void drain(Long jobExecutionId, AtomicBoolean sawWork, AtomicInteger failed) {
+        long idleSince = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            long[] claimed = queue.claim(workerId, jobExecutionId, taskIndex, taskCount, staleSeconds);
+            if (claimed != null) {
+                sawWork.set(true);
+                if (!execute(claimed[0], claimed[1])) {
+                    failed.incrementAndGet();
+                }
+                idleSince = System.nanoTime();
+                continue;
+            }
+            // The manager publishes all partitions of a job at once, so an empty claim means its queue is drained
+            if (jobExecutionId != null || (sawWork.get() && !queue.hasPending(staleSeconds))) {
+                return;
+            }
+            if (System.nanoTime() - idleSince > TimeUnit.SECONDS.toNanos(idleSeconds)) {
+                log.info("No partition to claim for {} seconds, stopping", idleSeconds);
+                return;
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean execute(long stepExecutionId, long jobExecutionId) {
+        StepExecution stepExecution = jobExplorer.getStepExecution(jobExecutionId, stepExecutionId);
+        if (stepExecution == null || stepExecution.getStatus() != BatchStatus.STARTING) {
+            log.warn("Skipping claimed partition {}: step execution is {}", stepExecutionId,
+                    stepExecution == null ? "missing" : stepExecution.getStatus());
+            queue.complete(workerId, stepExecutionId, false);
+            return false;
+        }
+        log.info("Worker {} executing {} ({})", workerId, stepExecution.getStepName(),
+                stepExecution.getExecutionContext().getString("partitionId", String.valueOf(stepExecutionId)));
+        try {
+            step.execute(stepExecution);
+        } catch (JobInterruptedException e) {
+            stepExecution.setStatus(BatchStatus.STOPPED);
+            jobRepository.update(stepExecution);
+        } catch (Throwable e) {
+            // Normally recorded by the step itself; this covers failures before it could
+            stepExecution.addFailureException(e);
+            stepExecution.setStatus(BatchStatus.FAILED);
+            jobRepository.update(stepExecution);
+        }
+        boolean completed = stepExecution.getStatus() == BatchStatus.COMPLETED;
+        queue.complete(workerId, stepExecutionId, completed);
+        Counter.builder("batch.remote.partitions")
+                .description("Partitions executed by this process in remote partitioning mode")
+                .tag("status", stepExecution.getStatus().name())
+                .register(registry)
+                .increment();
+        return completed;
+    }
+}
@@ -1,106 +1,465 @@
 package com.mayank.batch.partitioner;
 
+import com.google.cloud.storage.Storage;
+import com.mayank.batch.reader.BgzfIndex;
+import com.mayank.batch.reader.BgzfInputStream;
+import com.mayank.batch.reader.ColumnarFormat;
+import com.mayank.batch.reader.CompressedPartitionResource;
+import com.mayank.batch.reader.InputResources;
+import com.mayank.batch.reader.RangeReadableResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Splits the input file into {@code gridSize} byte ranges in a single pass.
+ * <p>
+ * Each boundary is aligned to the start of a line (newlines inside quoted fields are ignored), so a
+ * partition reader can seek straight to {@code startOffset} and stop at {@code endOffset} without
+ * re-reading any of the lines that belong to earlier partitions.
+ * <p>
+ * With {@code partition.mode=dynamic} the file is instead cut into many smaller work units:
+ * {@code partition.unitsPerWorker} per grid slot, or one per {@code partition.unitBytes} bytes when that is set.
+ * The partition task executor only runs {@code gridSize} of them at once, so each worker picks up the next unit
+ * as soon as it finishes one, and a slow range no longer holds back a whole {@code 1/gridSize} of the file.
+ * <p>
+ * Remote objects ({@link RangeReadableResource}, e.g. {@code gs://}) are not streamed: each boundary is found by a
+ * small ranged read at its target offset, so only a few KB per partition are transferred. Line counts are then
+ * unknown and {@code startAt}/{@code itemCount} are left out, and the probe takes the first newline after the
+ * target, so quoted fields spanning lines are not supported for such inputs.
+ * <p>
+ * Gzip input is detected from its magic bytes and marked with a {@code compression} key. Plain gzip cannot be
+ * split and becomes a single partition. BGZF ({@code bgzip}) is split on block boundaries using its block index,
+ * and each partition decompresses only its own blocks (see {@code CompressedPartitionResource}).
+ * <p>
+ * Columnar files written by {@code convert-data} are split on row group boundaries from their footer index and
+ * marked with {@code format=columnar}.
+ * <p>
+ * The scan also records the smallest and largest id of each range as {@code minId}/{@code maxId}. Ids are not
+ * assumed to follow line numbers: they can be sparse, shuffled or missing, and boundaries stay purely positional.
+ * <p>
+ * With {@code partition.by=id} partitions are cut by id instead, for unsorted exports where a byte range says little
+ * about which ids it holds. The same single pass keeps a {@code partition.idSampleSize} reservoir sample of ids, whose
+ * quantiles give inclusive {@code minId}/{@code maxId} ranges holding similar numbers of rows. Each partition's byte
+ * range covers every scanned segment that may hold one of its ids (the whole file when ids are fully shuffled), and
+ * its reader drops the ids outside its range. Rows whose id cannot be parsed belong to the first range. Remote,
+ * compressed and columnar inputs are not scanned and keep positional partitions.
+ */
 @Component
 @StepScope
 public class RangePartitioner implements Partitioner {
 
     private static final Logger log = LoggerFactory.getLogger(RangePartitioner.class);
 
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    private static final int PROBE_SIZE = 4 * 1024;
+    private static final int ID_SEGMENTS_PER_PARTITION = 64;
+    private static final int MAX_ID_SEGMENTS = 1 << 16;
+    private static final int MAX_ID_DIGITS = 18;
+
     @Value("#{jobParameters['inputFile']}")
     private String inputFile;
 
+    @Value("${partition.mode:fixed}")
+    private String mode;
+
+    @Value("${partition.unitsPerWorker:10}")
+    private int unitsPerWorker;
+
+    @Value("${partition.unitBytes:0}")
+    private long unitBytes;
+
+    @Value("${partition.by:position}")
+    private String partitionBy;
+
+    @Value("${partition.idSampleSize:65536}")
+    private int idSampleSize;
+
     private final ResourceLoader resourceLoader;
+    private final ObjectProvider<Storage> storage;
 
-    public RangePartitioner(ResourceLoader resourceLoader) {
+    public RangePartitioner(ResourceLoader resourceLoader, ObjectProvider<Storage> storage) {
         this.resourceLoader = resourceLoader;
+        this.storage = storage;
     }
 
     @Override
     public Map<String, ExecutionContext> partition(int gridSize) {
-        long minId = 1L;
-        long maxId = 0L;
+        Resource resource = InputResources.resolve(resourceLoader,
+                storage == null ? null : storage.getIfAvailable(), inputFile, PROBE_SIZE);
 
-        Resource resource = resourceLoader.getResource(inputFile);
-
-        // If resourceLoader didn't resolve an existing resource (e.g., absolute filesystem path
-        // is interpreted as ServletContextResource), fall back to FileSystemResource
-        if (resource == null || !resource.exists()) {
-            resource = new org.springframework.core.io.FileSystemResource(inputFile);
-        }
-
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) {
-                    continue;
-                }
-                try {
-                    long currentId = Long.parseLong(line.split(",")[0]);
-                    if (maxId == 0L || currentId > maxId) {
-                        maxId = currentId;
-                    }
-                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
-                    // Log malformed lines and continue
-                    log.warn("Skipping malformed line in input file {}: {}", inputFile, line);
-                }
+        long fileSize;
+        long dataEnd;
+        String compression;
+        boolean columnar;
+        List<long[]> boundaries;
+        long totalLines;
+        boolean byId = "id".equalsIgnoreCase(partitionBy);
+        IdSample sample = null;
+        int partitions;
+        try {
+            fileSize = resource.contentLength();
+            dataEnd = fileSize;
+            byte[] header = header(resource, fileSize);
+            compression = compression(header);
+            columnar = ColumnarFormat.isColumnar(header, header.length);
+            partitions = unitCount(Math.max(1, gridSize), fileSize);
+            ScanResult scan;
+            if (columnar) {
+                ColumnarFormat.Index index = ColumnarFormat.readIndex(resource, fileSize);
+                dataEnd = index.dataEnd();
+                scan = new ScanResult(align(index.rowGroups(), dataEnd, partitions), index.rows());
+            } else if (CompressedPartitionResource.GZIP.equals(compression)) {
+                log.warn("{} is plain gzip and cannot be split; it is read by a single partition "
+                        + "(recompress with bgzip to read it in parallel)", inputFile);
+                scan = new ScanResult(List.of(new long[]{0L, -1L}), -1L);
+            } else if (CompressedPartitionResource.BGZF.equals(compression)) {
+                List<long[]> blocks = BgzfIndex.blockOffsets(resource, fileSize).stream()
+                        .map(offset -> new long[]{offset, -1L})
+                        .toList();
+                scan = new ScanResult(align(blocks, fileSize, partitions), -1L);
+            } else if (resource instanceof RangeReadableResource ranged) {
+                scan = probe(ranged, fileSize, partitions);
+            } else if (byId) {
+                sample = new IdSample(idSampleSize, 42L);
+                int segments = (int) Math.min(MAX_ID_SEGMENTS, (long) partitions * ID_SEGMENTS_PER_PARTITION);
+                scan = scan(resource, fileSize, Math.max(partitions, segments), sample);
+            } else {
+                scan = scan(resource, fileSize, partitions, null);
             }
+            boundaries = scan.boundaries;
+            totalLines = scan.lines;
         } catch (IOException e) {
             throw new RuntimeException("Failed to read input file: " + inputFile, e);
         }
 
-        if (maxId == 0L) {
-            throw new IllegalStateException("Input file is empty or contains no valid IDs.");
+        if (totalLines == 0L || fileSize == 0L) {
+            throw new IllegalStateException("Input file is empty or contains no data lines.");
+        }
+        if (byId && (sample == null || sample.seen() == 0L)) {
+            log.warn("{} cannot be partitioned by id (not a scanned CSV, or no numeric ids); "
+                    + "falling back to positional partitions", inputFile);
+        } else if (byId) {
+            return idPartitions(boundaries, dataEnd, sample, partitions, gridSize);
         }
-
-        long total = maxId - minId + 1;
-        long targetSize = total / gridSize + (total % gridSize == 0 ? 0 : 1);
 
         Map<String, ExecutionContext> result = new HashMap<>();
-        long number = 0;
-        long start = minId;
-        long end = start + targetSize - 1;
+        for (int number = 0; number < boundaries.size(); number++) {
+            long[] start = boundaries.get(number);
+            long[] next = number + 1 < boundaries.size() ? boundaries.get(number + 1) : new long[]{dataEnd, totalLines};
+
+            long startOffset = start[0];
+            long endOffset = next[0];
+            // startAt/itemCount are kept for logging and tooling; readers only rely on the byte range
+            int startAt = (int) start[1];
+            int itemCount = (int) (next[1] - start[1]);
 
-        while (start <= maxId) {
             ExecutionContext value = new ExecutionContext();
+            value.putLong("startOffset", startOffset);
+            value.putLong("endOffset", endOffset);
+            if (totalLines > 0) {
+                value.putInt("startAt", startAt);
+                value.putInt("itemCount", itemCount);
+            }
+            value.putString("inputFile", inputFile);
+            if (compression != null) {
+                value.putString("compression", compression);
+            }
+            if (columnar) {
+                value.putString("format", "columnar");
+            }
+            if (start.length > 2 && start[2] <= start[3]) {
+                value.putLong("minId", start[2]);
+                value.putLong("maxId", start[3]);
+            }
+            value.putString("partitionId", "partition" + number);
             result.put("partition" + number, value);
 
-            if (end >= maxId) {
-                end = maxId;
-            }
+            log.debug("Created partition {} -> startOffset={}, endOffset={}, startAt={}, itemCount={}",
+                    number, startOffset, endOffset, startAt, itemCount);
+        }
+
+        log.info("Created {} partitions for {} concurrent workers over {} bytes / {} lines",
+                result.size(), gridSize, fileSize, totalLines > 0 ? totalLines : "unknown");
+        return result;
+    }
 
-            // For the reader we provide 'startAt' (lines to skip) and 'itemCount' values
-            int startAt = (int) (start - 1); // zero-based line offset for data without header
-            int itemCount = (int) (end - start + 1);
+    /**
+     * Cuts {@code [Long.MIN_VALUE, Long.MAX_VALUE]} at the sampled id quantiles. Each range is read from the first
+     * to the last scanned segment whose observed ids overlap it.
+     */
+    private Map<String, ExecutionContext> idPartitions(List<long[]> segments, long dataEnd, IdSample sample,
+                                                       int partitions, int gridSize) {
+        long[] cuts = sample.cutPoints(partitions);
+        Map<String, ExecutionContext> result = new HashMap<>();
+        for (int number = 0; number <= cuts.length; number++) {
+            long minId = number == 0 ? Long.MIN_VALUE : cuts[number - 1];
+            long maxId = number == cuts.length ? Long.MAX_VALUE : cuts[number] - 1;
+
+            long startOffset = -1L;
+            long endOffset = 0L;
+            for (int segment = 0; segment < segments.size(); segment++) {
+                long[] ids = segments.get(segment);
+                if (ids[2] <= maxId && ids[3] >= minId) {
+                    if (startOffset < 0) {
+                        startOffset = ids[0];
+                    }
+                    endOffset = segment + 1 < segments.size() ? segments.get(segment + 1)[0] : dataEnd;
+                }
+            }
+            startOffset = Math.max(0L, Math.min(startOffset, endOffset));
+            long itemCount = sample.estimate(minId, maxId);
 
-            value.putInt("startAt", startAt);
-            value.putInt("itemCount", itemCount);
+            ExecutionContext value = new ExecutionContext();
+            value.putLong("startOffset", startOffset);
+            value.putLong("endOffset", endOffset);
+            value.putInt("itemCount", (int) Math.min(Integer.MAX_VALUE, itemCount));
+            value.putString("partitionBy", "id");
+            value.putLong("minId", minId);
+            value.putLong("maxId", maxId);
             value.putString("inputFile", inputFile);
             value.putString("partitionId", "partition" + number);
+            result.put("partition" + number, value);
 
-            log.info("Created partition {} -> startId={}, endId={}, startAt={}, itemCount={}", number, start, end, startAt, itemCount);
-
-            start += targetSize;
-            end += targetSize;
-            number++;
+            log.debug("Created partition {} -> minId={}, maxId={}, startOffset={}, endOffset={}, itemCount~{}",
+                    number, minId, maxId, startOffset, endOffset, itemCount);
         }
 
+        log.info("Created {} id-range partitions for {} concurrent workers over {} ids (sampled {})",
+                result.size(), gridSize, sample.seen(), Math.min(sample.seen(), idSampleSize));
         return result;
     }
+
+    /**
+     * Number of byte ranges to cut: {@code gridSize} in fixed mode, otherwise enough small units to keep
+     * every worker busy until the end of the file.
+     */
+    private int unitCount(int gridSize, long fileSize) {
+        if (!"dynamic".equalsIgnoreCase(mode)) {
+            return gridSize;
+        }
+        long units = unitBytes > 0
+                ? (fileSize + unitBytes - 1) / unitBytes
+                : (long) gridSize * Math.max(1, unitsPerWorker);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(gridSize, units));
+    }
+
+    /**
+     * Streams the resource once, recording the first line start at or after each of the
+     * {@code partitions - 1} evenly spaced byte targets together with the number of data lines before it and the
+     * smallest and largest leading id of the range that starts there ({@code {offset, lines, minId, maxId}}). A line
+     * whose first field is not a plain integer widens its range to every id. Parsed ids are also fed to
+     * {@code sample} when given.
+     */
+    private ScanResult scan(Resource resource, long fileSize, int partitions, IdSample sample) throws IOException {
+        List<long[]> boundaries = new ArrayList<>(Math.min(partitions, 1024));
+        boundaries.add(new long[]{0L, 0L, Long.MAX_VALUE, Long.MIN_VALUE});
+
+        int nextTarget = 1;
+        long target = targetOffset(nextTarget, fileSize, partitions);
+
+        long position = 0L;
+        long lines = 0L;
+        boolean inQuotes = false;
+        boolean lineHasData = false;
+        boolean parsingId = true;
+        boolean negative = false;
+        int idDigits = 0;
+        long id = 0L;
+
+        byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+        try (InputStream in = resource.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (parsingId) {
+                        if (b >= '0' && b <= '9' && idDigits < MAX_ID_DIGITS) {
+                            id = id * 10 + (b - '0');
+                            idDigits++;
+                            continue;
+                        } else if (b == '-' && idDigits == 0 && !negative) {
+                            negative = true;
+                            continue;
+                        }
+                        parsingId = false;
+                        long[] range = boundaries.get(boundaries.size() - 1);
+                        if (idDigits > 0 && (b == ',' || b == '\r' || b == '\n')) {
+                            observeId(range, negative ? -id : id, sample);
+                        } else if (negative || idDigits > 0 || (b != '\r' && b != '\n')) {
+                            range[2] = Long.MIN_VALUE;
+                            range[3] = Long.MAX_VALUE;
+                        }
+                        // Digits end the id but are still data for the line count
+                        lineHasData |= idDigits > 0 || negative;
+                    }
+                    if (b == '"') {
+                        inQuotes = !inQuotes;
+                        lineHasData = true;
+                    } else if (b == '\n' && !inQuotes) {
+                        if (lineHasData) {
+                            lines++;
+                            lineHasData = false;
+                        }
+                        parsingId = true;
+                        negative = false;
+                        idDigits = 0;
+                        id = 0L;
+                        long lineStart = position + i + 1;
+                        // Several targets can fall inside one long line; they collapse onto the same boundary
+                        while (nextTarget < partitions && lineStart >= target) {
+                            if (lineStart < fileSize && lineStart > boundaries.get(boundaries.size() - 1)[0]) {
+                                boundaries.add(new long[]{lineStart, lines, Long.MAX_VALUE, Long.MIN_VALUE});
+                            }
+                            nextTarget++;
+                            target = targetOffset(nextTarget, fileSize, partitions);
+                        }
+                    } else if (b != '\r' && b != ' ' && b != '\t') {
+                        lineHasData = true;
+                    }
+                }
+                position += read;
+            }
+        }
+        if (parsingId && (idDigits > 0 || negative)) {
+            // Last line holds nothing but its id
+            long[] range = boundaries.get(boundaries.size() - 1);
+            if (idDigits > 0) {
+                observeId(range, negative ? -id : id, sample);
+            } else {
+                range[2] = Long.MIN_VALUE;
+                range[3] = Long.MAX_VALUE;
+            }
+            lineHasData = true;
+        }
+        if (lineHasData) {
+            lines++;
+        }
+        return new ScanResult(boundaries, lines);
+    }
+
+    private static void observeId(long[] range, long id, IdSample sample) {
+        range[2] = Math.min(range[2], id);
+        range[3] = Math.max(range[3], id);
+        if (sample != null) {
+            sample.add(id);
+        }
+    }
+
+    /**
+     * Finds each boundary of a remote object with ranged reads of {@value #PROBE_SIZE} bytes at the target offset,
+     * moving on to the next slice only when a line is longer than that. Lines are not counted ({@code -1}).
+     */
+    private ScanResult probe(RangeReadableResource resource, long fileSize, int partitions) throws IOException {
+        List<long[]> boundaries = new ArrayList<>(Math.min(partitions, 1024));
+        boundaries.add(new long[]{0L, -1L});
+
+        ByteBuffer buffer = ByteBuffer.allocate(PROBE_SIZE);
+        for (int index = 1; index < partitions; index++) {
+            long target = targetOffset(index, fileSize, partitions);
+            if (target <= boundaries.get(boundaries.size() - 1)[0]) {
+                // Collapses onto the previous boundary, like several targets inside one long line when scanning
+                continue;
+            }
+            // Start one byte early so a target that is already a line start is kept
+            long position = target - 1;
+            long lineStart = -1L;
+            while (lineStart < 0 && position < fileSize) {
+                buffer.clear();
+                long end = Math.min(position + PROBE_SIZE, fileSize);
+                try (ReadableByteChannel channel = resource.readableChannel(position, end)) {
+                    while (buffer.position() < end - position && channel.read(buffer) >= 0) {
+                        // Fill the probe buffer
+                    }
+                }
+                buffer.flip();
+                for (int i = 0; i < buffer.limit(); i++) {
+                    if (buffer.get(i) == '\n') {
+                        lineStart = position + i + 1;
+                        break;
+                    }
+                }
+                position += buffer.limit();
+                if (buffer.limit() == 0) {
+                    break;
+                }
+            }
+            if (lineStart > boundaries.get(boundaries.size() - 1)[0] && lineStart < fileSize) {
+                boundaries.add(new long[]{lineStart, -1L});
+            }
+        }
+        return new ScanResult(boundaries, -1L);
+    }
+
+    /**
+     * Groups self-contained units (BGZF blocks, columnar row groups), given as {@code {offset, linesBefore}} in file
+     * order, into runs starting at the first unit at or after each evenly spaced offset of {@code [first, dataEnd)}.
+     */
+    private static List<long[]> align(List<long[]> units, long dataEnd, int partitions) {
+        List<long[]> boundaries = new ArrayList<>(Math.min(partitions, 1024));
+        long first = units.isEmpty() ? 0L : units.get(0)[0];
+        boundaries.add(units.isEmpty() ? new long[]{0L, 0L} : units.get(0));
+        int unit = 0;
+        for (int index = 1; index < partitions; index++) {
+            long target = first + targetOffset(index, dataEnd - first, partitions);
+            while (unit < units.size() && units.get(unit)[0] < target) {
+                unit++;
+            }
+            if (unit < units.size() && units.get(unit)[0] > boundaries.get(boundaries.size() - 1)[0]) {
+                boundaries.add(units.get(unit));
+            }
+        }
+        return boundaries;
+    }
+
+    private static byte[] header(Resource resource, long fileSize) throws IOException {
+        byte[] header = new byte[18];
+        int length;
+        if (resource instanceof RangeReadableResource ranged) {
+            try (InputStream in = Channels.newInputStream(ranged.readableChannel(0, Math.min(header.length, fileSize)))) {
+                length = in.readNBytes(header, 0, header.length);
+            }
+        } else {
+            try (InputStream in = resource.getInputStream()) {
+                length = in.readNBytes(header, 0, header.length);
+            }
+        }
+        return Arrays.copyOf(header, length);
+    }
+
+    /**
+     * Detects gzip input from its magic bytes: {@code bgzf} when the first member carries the BGZF block size,
+     * {@code gzip} otherwise, and {@code null} for uncompressed input.
+     */
+    private static String compression(byte[] header) {
+        if (BgzfInputStream.isBgzf(header, header.length)) {
+            return CompressedPartitionResource.BGZF;
+        }
+        return BgzfInputStream.isGzip(header, header.length) ? CompressedPartitionResource.GZIP : null;
+    }
+
+    private static long targetOffset(int index, long fileSize, int partitions) {
+        return fileSize / partitions * index + fileSize % partitions * index / partitions;
+    }
+
+    private record ScanResult(List<long[]> boundaries, long lines) {
+    }
 }
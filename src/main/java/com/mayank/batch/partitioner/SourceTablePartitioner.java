@@ -0,0 +1,138 @@
+package com.mayank.batch.partitioner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a table shaped like {@code source_record} ({@code id}, {@code payload}, {@code created_at}) into id ranges,
+ * for jobs launched with a {@code sourceTable} job parameter instead of {@code inputFile}.
+ * <p>
+ * With {@code source.boundaries=minmax} (the default) {@code [min(id), max(id)]} is cut into equal-width ranges,
+ * which only needs the primary key index. With {@code source.boundaries=percentile} the boundaries are
+ * {@code percentile_disc} values of {@code id}, so sparse or skewed ids still give partitions of similar row counts,
+ * at the cost of one ordered pass over the ids.
+ * <p>
+ * Each partition gets the inclusive {@code minId}/{@code maxId} range its keyset reader pages through.
+ * {@code partition.mode=dynamic} cuts {@code partition.unitsPerWorker} ranges per grid slot, as for files.
+ */
+@Component
+@StepScope
+public class SourceTablePartitioner implements Partitioner {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceTablePartitioner.class);
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    @Value("#{jobParameters['sourceTable']}")
+    private String sourceTable;
+
+    @Value("${source.boundaries:minmax}")
+    private String boundaries;
+
+    @Value("${partition.mode:fixed}")
+    private String mode;
+
+    @Value("${partition.unitsPerWorker:10}")
+    private int unitsPerWorker;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SourceTablePartitioner(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        if (sourceTable == null || !TABLE_NAME.matcher(sourceTable).matches()) {
+            throw new IllegalArgumentException("Invalid sourceTable job parameter: " + sourceTable);
+        }
+        int partitions = "dynamic".equalsIgnoreCase(mode)
+                ? Math.max(1, gridSize) * Math.max(1, unitsPerWorker)
+                : Math.max(1, gridSize);
+
+        long[] range = jdbcTemplate.queryForObject("SELECT min(id), max(id) FROM " + sourceTable,
+                (rs, rowNum) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)});
+        if (range == null) {
+            throw new IllegalStateException("Source table " + sourceTable + " is empty.");
+        }
+
+        List<Long> starts = "percentile".equalsIgnoreCase(boundaries)
+                ? percentileStarts(range[0], partitions)
+                : equalWidthStarts(range[0], range[1], partitions);
+
+        Map<String, ExecutionContext> result = new HashMap<>();
+        for (int number = 0; number < starts.size(); number++) {
+            long minId = starts.get(number);
+            long maxId = number + 1 < starts.size() ? starts.get(number + 1) - 1 : range[1];
+
+            ExecutionContext value = new ExecutionContext();
+            value.putLong("minId", minId);
+            value.putLong("maxId", maxId);
+            value.putString("sourceTable", sourceTable);
+            value.putString("partitionId", "partition" + number);
+            result.put("partition" + number, value);
+
+            log.debug("Created partition {} -> minId={}, maxId={}", number, minId, maxId);
+        }
+
+        log.info("Created {} partitions for {} concurrent workers over {} ids {}..{}",
+                result.size(), gridSize, sourceTable, range[0], range[1]);
+        return result;
+    }
+
+    private static List<Long> equalWidthStarts(long minId, long maxId, int partitions) {
+        List<Long> starts = new ArrayList<>();
+        starts.add(minId);
+        long span = maxId - minId + 1;
+        for (int i = 1; i < partitions; i++) {
+            long start = minId + span / partitions * i + span % partitions * i / partitions;
+            if (start > starts.get(starts.size() - 1) && start <= maxId) {
+                starts.add(start);
+            }
+        }
+        return starts;
+    }
+
+    private List<Long> percentileStarts(long minId, int partitions) {
+        Double[] fractions = new Double[partitions - 1];
+        for (int i = 1; i < partitions; i++) {
+            fractions[i - 1] = (double) i / partitions;
+        }
+        List<Long> starts = new ArrayList<>();
+        starts.add(minId);
+        if (fractions.length == 0) {
+            return starts;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT percentile_disc(?::float8[]) WITHIN GROUP (ORDER BY id) FROM " + sourceTable);
+            ps.setArray(1, connection.createArrayOf("float8", fractions));
+            return ps;
+        }, rs -> {
+            Array array = rs.getArray(1);
+            for (Object boundary : (Object[]) array.getArray()) {
+                long start = ((Number) boundary).longValue();
+                // Repeated percentiles (few distinct ids) collapse into one partition
+                if (start > starts.get(starts.size() - 1)) {
+                    starts.add(start);
+                }
+            }
+        });
+        return starts;
+    }
+}
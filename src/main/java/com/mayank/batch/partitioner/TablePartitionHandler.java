@@ -0,0 +1,157 @@
+package com.mayank.batch.partitioner;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.AbstractPartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Partition handler of {@code masterStep} with {@code partition.remote.enabled=true}. Instead of running the
+ * partitions on local threads it publishes them to {@link PartitionWorkQueue}, where worker processes (and
+ * {@code partition.remote.threads} threads of this one, through {@link PartitionWorker}) claim them.
+ * <p>
+ * Completion is read back from the JobRepository every {@code partition.remote.pollMillis}, so the manager aggregates
+ * exactly what the workers recorded. A partition whose worker stops sending heartbeats for
+ * {@code partition.remote.staleSeconds} is marked {@code FAILED}, which fails the job; restarting it re-runs only the
+ * partitions that did not complete, as with local partitioning. Such partitions are counted in
+ * {@code batch.remote.partitions.stale}. {@code partition.remote.timeoutSeconds} (0 = none) bounds the whole wait.
+ * While waiting, the manager refreshes its own heartbeat in {@code partition_manager} every quarter of
+ * {@code staleSeconds}; workers stop claiming the execution's partitions once it goes stale.
+ */
+@Component
+public class TablePartitionHandler extends AbstractPartitionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(TablePartitionHandler.class);
+
+    @Value("${partition.remote.threads:${partition.grid:4}}")
+    private int localThreads;
+
+    @Value("${partition.remote.pollMillis:500}")
+    private long pollMillis;
+
+    @Value("${partition.remote.staleSeconds:60}")
+    private int staleSeconds;
+
+    @Value("${partition.remote.timeoutSeconds:0}")
+    private long timeoutSeconds;
+
+    private final PartitionWorkQueue queue;
+    private final PartitionWorker worker;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final TaskExecutor taskExecutor;
+    private final Counter staleCounter;
+
+    public TablePartitionHandler(PartitionWorkQueue queue,
+                                 PartitionWorker worker,
+                                 JobExplorer jobExplorer,
+                                 JobRepository jobRepository,
+                                 TaskExecutor taskExecutor,
+                                 MeterRegistry registry,
+                                 @Value("${partition.grid:4}") int gridSize) {
+        this.queue = queue;
+        this.worker = worker;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.taskExecutor = taskExecutor;
+        this.staleCounter = Counter.builder("batch.remote.partitions.stale")
+                .description("Remote partitions failed by the manager after their worker stopped sending heartbeats")
+                .register(registry);
+        setGridSize(gridSize);
+    }
+
+    @Override
+    @NonNull
+    protected Set<StepExecution> doHandle(@NonNull StepExecution managerStepExecution,
+                                          @NonNull Set<StepExecution> partitionStepExecutions) throws Exception {
+        long jobExecutionId = managerStepExecution.getJobExecutionId();
+        Map<Long, StepExecution> running = new LinkedHashMap<>();
+        for (StepExecution partition : partitionStepExecutions) {
+            running.put(partition.getId(), partition);
+        }
+        queue.offer(jobExecutionId, partitionStepExecutions);
+        log.info("Published {} partitions of job execution {} to partition_work", running.size(), jobExecutionId);
+
+        for (int i = 0; i < Math.min(localThreads, running.size()); i++) {
+            taskExecutor.execute(() -> {
+                try {
+                    worker.drain(jobExecutionId);
+                } catch (Exception e) {
+                    // The partitions this thread held go stale and are failed below
+                    log.error("Local partition worker failed", e);
+                }
+            });
+        }
+
+        Set<StepExecution> result = new HashSet<>();
+        long deadline = timeoutSeconds > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds) : 0;
+        long heartbeatNanos = Math.max(TimeUnit.SECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(staleSeconds) / 4);
+        long lastHeartbeat = System.nanoTime();
+        while (true) {
+            if (System.nanoTime() - lastHeartbeat >= heartbeatNanos) {
+                queue.managerHeartbeat(jobExecutionId);
+                lastHeartbeat = System.nanoTime();
+            }
+            for (Long stale : queue.releaseStale(jobExecutionId, staleSeconds)) {
+                if (running.containsKey(stale)) {
+                    failStale(jobExecutionId, stale);
+                }
+            }
+            running.values().removeIf(partition -> {
+                StepExecution refreshed = jobExplorer.getStepExecution(jobExecutionId, partition.getId());
+                if (refreshed == null || refreshed.getStatus().isRunning()) {
+                    return false;
+                }
+                result.add(refreshed);
+                return true;
+            });
+            if (running.isEmpty()) {
+                return result;
+            }
+            if (deadline != 0 && System.nanoTime() > deadline) {
+                throw new TimeoutException("Timeout occurred before all " + partitionStepExecutions.size()
+                        + " partitions of job execution " + jobExecutionId + " returned");
+            }
+            Thread.sleep(pollMillis);
+        }
+    }
+
+    private void failStale(long jobExecutionId, long stepExecutionId) {
+        StepExecution stepExecution = jobExplorer.getStepExecution(jobExecutionId, stepExecutionId);
+        if (stepExecution == null || !stepExecution.getStatus().isRunning()) {
+            return;
+        }
+        stepExecution.setStatus(BatchStatus.FAILED);
+        stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(
+                "No heartbeat from the worker for " + staleSeconds + " seconds"));
+        stepExecution.setEndTime(LocalDateTime.now());
+        try {
+            jobRepository.update(stepExecution);
+            staleCounter.increment();
+            log.warn("Failed partition {} of job execution {}: no heartbeat for {} seconds",
+                    stepExecutionId, jobExecutionId, staleSeconds);
+        } catch (OptimisticLockingFailureException e) {
+            // The worker updated it in the meantime, so it is alive after all; keep waiting for its result
+            log.info("Partition {} was updated by its worker while being failed, waiting for it", stepExecutionId);
+        }
+    }
+}
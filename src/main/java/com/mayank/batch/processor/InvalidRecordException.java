@@ -0,0 +1,22 @@
+package com.mayank.batch.processor;
+
+import com.mayank.batch.model.Record;
+import org.springframework.batch.item.validator.ValidationException;
+
+/**
+ * A record that cannot be written, carrying the record itself so that it can be quarantined wherever the
+ * failure surfaces (in the processor, or on the step thread when the pipelined reader runs the processor).
+ */
+public class InvalidRecordException extends ValidationException {
+
+    private final transient Record record;
+
+    public InvalidRecordException(Record record, String message) {
+        super(message);
+        this.record = record;
+    }
+
+    public Record getRecord() {
+        return record;
+    }
+}
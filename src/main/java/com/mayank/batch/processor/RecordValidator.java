@@ -0,0 +1,24 @@
+package com.mayank.batch.processor;
+
+import com.mayank.batch.model.Record;
+import org.springframework.batch.item.validator.Validator;
+
+/**
+ * Rejects records that the readers could only map partially: both readers turn a malformed id or timestamp into
+ * {@code null} rather than failing the line, and {@code processed_record} needs an id and a payload.
+ */
+public class RecordValidator implements Validator<Record> {
+
+    @Override
+    public void validate(Record record) throws InvalidRecordException {
+        if (record.getId() == null) {
+            throw new InvalidRecordException(record, "Missing or malformed id");
+        }
+        if (record.getPayload() == null || record.getPayload().isBlank()) {
+            throw new InvalidRecordException(record, "Missing payload");
+        }
+        if (record.getCreatedAt() == null) {
+            throw new InvalidRecordException(record, "Missing or malformed createdAt");
+        }
+    }
+}
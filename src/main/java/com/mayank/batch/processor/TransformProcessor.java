@@ -2,12 +2,46 @@ package com.mayank.batch.processor;
 
 import com.mayank.batch.model.Record;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Wraps each payload as {@code {"original": <payload>, "processed": true, "timestamp": "<Instant>"}}.
+ * <p>
+ * The JSON is built in a per-thread {@link StringBuilder} instead of {@code String.format}, and the
+ * date-time part of the timestamp is formatted once per second and shared; only the fraction is appended
+ * per record, so the output is identical to {@code Instant.now().toString()}.
+ * <p>
+ * With {@code processor.mutateInPlace=true} the input {@link Record} is updated and returned rather than
+ * copied. That is only safe when processed items are not re-processed on a retried chunk, so the slave
+ * step switches to a non-transactional processor in that mode.
+ */
 @Component
 public class TransformProcessor implements ItemProcessor<Record, Record> {
 
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> PAYLOAD_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private static volatile SecondPrefix secondPrefix;
+
+    private final Clock clock;
+
+    @Value("${processor.mutateInPlace:false}")
+    private boolean mutateInPlace;
+
+    public TransformProcessor() {
+        this(Clock.systemUTC());
+    }
+
+    TransformProcessor(Clock clock) {
+        this.clock = clock;
+    }
+
     @Override
     @Retryable(retryFor = {RuntimeException.class})
     public Record process(Record record) {
@@ -17,19 +51,73 @@ public class TransformProcessor implements ItemProcessor<Record, Record> {
         }
 
         // Simulate business transformation
-        Record transformed = new Record();
-        transformed.setId(record.getId());
+        Record transformed = record;
+        if (!mutateInPlace) {
+            transformed = new Record();
+            transformed.setId(record.getId());
+            transformed.setCreatedAt(record.getCreatedAt());
+            transformed.setFingerprint(record.getFingerprint());
+        }
 
         // Add processing metadata to payload
-        String transformedPayload = String.format(
-                "{\"original\": %s, \"processed\": true, \"timestamp\": \"%s\"}",
-                record.getPayload(),
-                java.time.Instant.now().toString()
-        );
-
-        transformed.setPayload(transformedPayload);
-        transformed.setCreatedAt(record.getCreatedAt());
+        transformed.setPayload(transformPayload(record.getPayload(), clock.instant()));
 
         return transformed;
     }
+
+    void setMutateInPlace(boolean mutateInPlace) {
+        this.mutateInPlace = mutateInPlace;
+    }
+
+    private static String transformPayload(String original, Instant now) {
+        StringBuilder json = PAYLOAD_BUFFER.get();
+        json.setLength(0);
+        json.append("{\"original\": ").append(original).append(", \"processed\": true, \"timestamp\": \"");
+        appendInstant(json, now);
+        json.append("\"}");
+
+        String payload = json.toString();
+        // Don't pin a buffer sized for one unusually large payload to the thread
+        if (json.capacity() > MAX_RETAINED_CAPACITY) {
+            PAYLOAD_BUFFER.remove();
+        }
+        return payload;
+    }
+
+    /**
+     * Appends {@code now} exactly as {@link Instant#toString()} would: the fraction is omitted when zero and
+     * otherwise printed with 3, 6 or 9 digits.
+     */
+    private static void appendInstant(StringBuilder json, Instant now) {
+        long epochSecond = now.getEpochSecond();
+        SecondPrefix prefix = secondPrefix;
+        if (prefix == null || prefix.epochSecond() != epochSecond) {
+            String formatted = Instant.ofEpochSecond(epochSecond).toString();
+            prefix = new SecondPrefix(epochSecond, formatted.substring(0, formatted.length() - 1));
+            secondPrefix = prefix;
+        }
+        json.append(prefix.text());
+
+        int nano = now.getNano();
+        if (nano > 0) {
+            json.append('.');
+            if (nano % 1_000_000 == 0) {
+                appendDigits(json, nano / 1_000_000, 100);
+            } else if (nano % 1_000 == 0) {
+                appendDigits(json, nano / 1_000, 100_000);
+            } else {
+                appendDigits(json, nano, 100_000_000);
+            }
+        }
+        json.append('Z');
+    }
+
+    private static void appendDigits(StringBuilder json, int value, int divisor) {
+        for (int d = divisor; d > 0; d /= 10) {
+            json.append((char) ('0' + value / d % 10));
+        }
+    }
+
+    private record SecondPrefix(long epochSecond, String text) {
+    }
 }
@@ -0,0 +1,113 @@
+package com.mayank.batch.reader;
+
+import org.springframework.core.io.Resource;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compressed offsets of the blocks of a BGZF file.
+ * <p>
+ * A {@code .gzi} index next to the input ({@code bgzip -i}) is used when present. Otherwise the block headers are
+ * walked: files with positioned reads of a few bytes per block, other resources by skipping through the stream.
+ */
+public final class BgzfIndex {
+
+    private BgzfIndex() {
+    }
+
+    public static List<Long> blockOffsets(Resource resource, long fileSize) throws IOException {
+        List<Long> offsets = readGzi(resource);
+        if (offsets != null) {
+            return offsets;
+        }
+        return resource.isFile() ? scanFile(resource, fileSize) : scanStream(resource);
+    }
+
+    /**
+     * Reads {@code <input>.gzi}: a little-endian entry count followed by (compressed, uncompressed) offset pairs
+     * for every block after the first.
+     */
+    private static List<Long> readGzi(Resource resource) {
+        Resource gzi;
+        try {
+            gzi = resource.createRelative(resource.getFilename() + ".gzi");
+            if (!gzi.exists()) {
+                return null;
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+        try (InputStream in = gzi.getInputStream()) {
+            byte[] bytes = in.readAllBytes();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            long entries = buffer.getLong();
+            List<Long> offsets = new ArrayList<>((int) Math.min(entries + 1, Integer.MAX_VALUE));
+            offsets.add(0L);
+            for (long i = 0; i < entries; i++) {
+                offsets.add(buffer.getLong());
+                buffer.getLong();
+            }
+            return offsets;
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Failed to read BGZF index " + gzi.getDescription(), e);
+        }
+    }
+
+    private static List<Long> scanFile(Resource resource, long fileSize) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(BgzfInputStream.HEADER_SIZE + 256);
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            long position = 0L;
+            while (position < fileSize) {
+                header.clear();
+                while (header.hasRemaining() && channel.read(header, position + header.position()) >= 0) {
+                    // Fill the header buffer
+                }
+                offsets.add(position);
+                position += blockSize(header.array(), header.position());
+            }
+        }
+        return offsets;
+    }
+
+    private static List<Long> scanStream(Resource resource) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        byte[] header = new byte[BgzfInputStream.HEADER_SIZE + 256];
+        try (DataInputStream in = new DataInputStream(resource.getInputStream())) {
+            long position = 0L;
+            int n;
+            while ((n = in.readNBytes(header, 0, BgzfInputStream.HEADER_SIZE)) > 0) {
+                if (n < BgzfInputStream.HEADER_SIZE) {
+                    throw new EOFException("Truncated BGZF header at offset " + position);
+                }
+                int xlen = BgzfInputStream.extraLength(header);
+                in.readFully(header, BgzfInputStream.HEADER_SIZE, xlen);
+                int size = blockSize(header, BgzfInputStream.HEADER_SIZE + xlen);
+                in.skipNBytes(size - BgzfInputStream.HEADER_SIZE - xlen);
+                offsets.add(position);
+                position += size;
+            }
+        }
+        return offsets;
+    }
+
+    private static int blockSize(byte[] header, int length) throws IOException {
+        int xlen = length >= BgzfInputStream.HEADER_SIZE ? BgzfInputStream.extraLength(header) : -1;
+        int size = xlen >= 0 && BgzfInputStream.HEADER_SIZE + xlen <= length
+                && BgzfInputStream.isGzip(header, length)
+                ? BgzfInputStream.blockSize(header, xlen) : -1;
+        if (size <= 0) {
+            throw new IOException("Not a BGZF block header");
+        }
+        return size;
+    }
+}
@@ -0,0 +1,154 @@
+package com.mayank.batch.reader;
+
+import org.springframework.lang.NonNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses a BGZF stream (blocked gzip, as written by {@code bgzip}): a series of gzip members of at most
+ * 64 KB uncompressed each, whose {@code BC} extra field records the compressed block size.
+ * <p>
+ * Blocks are decoded one at a time from their own header, so the stream can start at any block offset and does
+ * not depend on {@link InputStream#available()} to find the next member, unlike {@code GZIPInputStream}.
+ */
+public class BgzfInputStream extends InputStream {
+
+    static final int HEADER_SIZE = 12;
+    private static final int MAX_BLOCK_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final Inflater inflater = new Inflater(true);
+    private final byte[] compressed = new byte[MAX_BLOCK_SIZE];
+    private final byte[] block = new byte[MAX_BLOCK_SIZE];
+    private int blockLength;
+    private int blockPosition;
+    private boolean finished;
+
+    public BgzfInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns whether {@code header} starts with a gzip member carrying the BGZF {@code BC} extra subfield.
+     */
+    public static boolean isBgzf(byte[] header, int length) {
+        return isGzip(header, length) && length >= 18 && (header[3] & 0x04) != 0
+                && header[12] == 'B' && header[13] == 'C' && header[14] == 2 && header[15] == 0;
+    }
+
+    public static boolean isGzip(byte[] header, int length) {
+        return length >= 3 && (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b && header[2] == 8;
+    }
+
+    /**
+     * Returns the total size of the block whose first {@link #HEADER_SIZE} bytes plus {@code XLEN} extra bytes are
+     * in {@code header}, or {@code -1} if it has no {@code BC} subfield.
+     */
+    static int blockSize(byte[] header, int xlen) {
+        int offset = HEADER_SIZE;
+        while (offset + 4 <= HEADER_SIZE + xlen) {
+            int subfieldLength = (header[offset + 2] & 0xff) | (header[offset + 3] & 0xff) << 8;
+            if (header[offset] == 'B' && header[offset + 1] == 'C' && subfieldLength == 2) {
+                return ((header[offset + 4] & 0xff) | (header[offset + 5] & 0xff) << 8) + 1;
+            }
+            offset += 4 + subfieldLength;
+        }
+        return -1;
+    }
+
+    static int extraLength(byte[] header) {
+        return (header[10] & 0xff) | (header[11] & 0xff) << 8;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return block[blockPosition++] & 0xff;
+    }
+
+    @Override
+    public int read(@NonNull byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, blockLength - blockPosition);
+        System.arraycopy(block, blockPosition, b, off, n);
+        blockPosition += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    /**
+     * Decodes blocks until one has data left to read; empty blocks (such as the BGZF end-of-file marker) are skipped.
+     */
+    private boolean fill() throws IOException {
+        while (blockPosition >= blockLength) {
+            if (finished || !readBlock()) {
+                finished = true;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readBlock() throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return false;
+        }
+        compressed[0] = (byte) first;
+        readFully(compressed, 1, HEADER_SIZE - 1);
+        if (!isGzip(compressed, HEADER_SIZE) || (compressed[3] & 0x04) == 0) {
+            throw new IOException("Not a BGZF block");
+        }
+        int xlen = extraLength(compressed);
+        readFully(compressed, HEADER_SIZE, xlen);
+        int size = blockSize(compressed, xlen);
+        if (size < 0) {
+            throw new IOException("BGZF block without a BC subfield");
+        }
+        // Compressed data, then CRC32 and ISIZE
+        int dataLength = size - HEADER_SIZE - xlen - 8;
+        readFully(compressed, 0, dataLength + 8);
+        int isize = (compressed[dataLength + 4] & 0xff) | (compressed[dataLength + 5] & 0xff) << 8
+                | (compressed[dataLength + 6] & 0xff) << 16 | (compressed[dataLength + 7] & 0xff) << 24;
+
+        inflater.reset();
+        inflater.setInput(compressed, 0, dataLength);
+        try {
+            blockLength = 0;
+            while (blockLength < isize && !inflater.finished()) {
+                int n = inflater.inflate(block, blockLength, isize - blockLength);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated BGZF block");
+                }
+                blockLength += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt BGZF block", e);
+        }
+        blockPosition = 0;
+        return true;
+    }
+
+    private void readFully(byte[] buffer, int offset, int length) throws IOException {
+        int n = in.readNBytes(buffer, offset, length);
+        if (n < length) {
+            throw new EOFException("Truncated BGZF block");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mayank.batch.reader;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A view of the {@code [startOffset, endOffset)} byte range of another resource.
+ * <p>
+ * File-backed resources are opened through a {@link FileChannel} positioned directly at
+ * {@code startOffset} and {@link RangeReadableResource}s with a ranged read; any other resource falls back
+ * to skipping the leading bytes of its stream.
+ */
+public class ByteRangeResource extends AbstractResource {
+
+    private final Resource delegate;
+    private final long startOffset;
+    private final long endOffset;
+
+    public ByteRangeResource(Resource delegate, long startOffset, long endOffset) {
+        if (startOffset < 0 || endOffset < startOffset) {
+            throw new IllegalArgumentException("Invalid byte range [" + startOffset + ", " + endOffset + ")");
+        }
+        this.delegate = delegate;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    public Resource getDelegate() {
+        return delegate;
+    }
+
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    @Override
+    public boolean exists() {
+        return delegate.exists();
+    }
+
+    @Override
+    public boolean isReadable() {
+        return delegate.isReadable();
+    }
+
+    @Override
+    public long contentLength() {
+        return endOffset - startOffset;
+    }
+
+    @Override
+    @NonNull
+    public InputStream getInputStream() throws IOException {
+        InputStream in;
+        if (delegate.isFile()) {
+            FileChannel channel = FileChannel.open(delegate.getFile().toPath(), StandardOpenOption.READ);
+            channel.position(startOffset);
+            in = Channels.newInputStream(channel);
+        } else if (delegate instanceof RangeReadableResource ranged) {
+            in = Channels.newInputStream(ranged.readableChannel(startOffset, endOffset));
+        } else {
+            in = delegate.getInputStream();
+            in.skipNBytes(startOffset);
+        }
+        return new BoundedInputStream(in, endOffset - startOffset);
+    }
+
+    @Override
+    @NonNull
+    public String getDescription() {
+        return "bytes [" + startOffset + ", " + endOffset + ") of " + delegate.getDescription();
+    }
+
+    /**
+     * Stops reading after {@code remaining} bytes without closing the underlying stream early.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private BoundedInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
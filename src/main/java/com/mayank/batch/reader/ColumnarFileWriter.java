@@ -0,0 +1,110 @@
+package com.mayank.batch.reader;
+
+import com.mayank.batch.model.Record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes {@link Record}s in the {@link ColumnarFormat}, buffering one row group in memory at a time.
+ */
+public class ColumnarFileWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final int rowGroupSize;
+    private final long[] ids;
+    private final long[] createdAt;
+    private final List<byte[]> payloads;
+    private final List<long[]> index = new ArrayList<>();
+
+    private int rows;
+    private long totalRows;
+    private long position;
+
+    public ColumnarFileWriter(Path path, int rowGroupSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.rowGroupSize = rowGroupSize;
+        this.ids = new long[rowGroupSize];
+        this.createdAt = new long[rowGroupSize];
+        this.payloads = new ArrayList<>(rowGroupSize);
+        write(ByteBuffer.wrap(ColumnarFormat.MAGIC));
+    }
+
+    public void write(Record record) throws IOException {
+        ids[rows] = record.getId() == null ? ColumnarFormat.NULL_VALUE : record.getId();
+        createdAt[rows] = ColumnarFormat.toEpochMicros(record.getCreatedAt());
+        payloads.add(record.getPayload() == null ? null : record.getPayload().getBytes(StandardCharsets.UTF_8));
+        if (++rows == rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    public long getRowCount() {
+        return totalRows + rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushRowGroup();
+            ByteBuffer footer = ByteBuffer.allocate(16 * index.size() + 12 + ColumnarFormat.MAGIC.length)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (long[] entry : index) {
+                footer.putLong(entry[0]).putLong(entry[1]);
+            }
+            footer.putLong(totalRows).putInt(index.size()).put(ColumnarFormat.MAGIC);
+            write(footer.flip());
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        long bodyLength = 16L * rows;
+        for (byte[] payload : payloads) {
+            bodyLength += 4 + (payload == null ? 0 : payload.length);
+        }
+        if (bodyLength > Integer.MAX_VALUE - ColumnarFormat.GROUP_HEADER_SIZE) {
+            throw new IOException("Row group of " + rows + " rows exceeds 2 GB; use a smaller row group size");
+        }
+        ByteBuffer group = ByteBuffer.allocate(ColumnarFormat.GROUP_HEADER_SIZE + (int) bodyLength)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        group.putInt(rows).putInt((int) bodyLength);
+        for (int i = 0; i < rows; i++) {
+            group.putLong(ids[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            group.putLong(createdAt[i]);
+        }
+        for (byte[] payload : payloads) {
+            if (payload == null) {
+                group.putInt(-1);
+            } else {
+                group.putInt(payload.length).put(payload);
+            }
+        }
+        index.add(new long[]{position, totalRows});
+        write(group.flip());
+        totalRows += rows;
+        rows = 0;
+        payloads.clear();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.mayank.batch.reader;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Layout of the columnar files written by {@code convert-data} and read by {@link ColumnarPartitionItemReader}.
+ * All numbers are little-endian.
+ * <pre>
+ * magic            "SBCOL001"
+ * row group *      int rows, int bodyLength, then the body:
+ *                    long id[rows]           (NULL_VALUE for a missing id)
+ *                    long createdAt[rows]    (epoch micros, UTC; NULL_VALUE for a missing timestamp)
+ *                    (int length, UTF-8 bytes)[rows] payloads (length -1 for null)
+ * footer           (long groupOffset, long firstRow)[groups], long rows, int groups, magic
+ * </pre>
+ * Row groups are self-describing, so a partition only needs its byte range; the footer index lets the
+ * partitioner cut ranges on row group boundaries without reading the data.
+ */
+public final class ColumnarFormat {
+
+    public static final int DEFAULT_ROW_GROUP_SIZE = 64 * 1024;
+
+    static final byte[] MAGIC = "SBCOL001".getBytes(StandardCharsets.US_ASCII);
+    static final int GROUP_HEADER_SIZE = 8;
+    static final long NULL_VALUE = Long.MIN_VALUE;
+    private static final int FOOTER_TAIL_SIZE = 8 + 4 + 8;
+
+    private ColumnarFormat() {
+    }
+
+    public static boolean isColumnar(byte[] header, int length) {
+        return length >= MAGIC.length && Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Reads the footer index: the offset and first row of every row group, the total row count and the offset
+     * where the data ends.
+     */
+    public static Index readIndex(Resource resource, long fileSize) throws IOException {
+        ByteBuffer tail = read(resource, fileSize - FOOTER_TAIL_SIZE, FOOTER_TAIL_SIZE);
+        long rows = tail.getLong();
+        int groups = tail.getInt();
+        byte[] magic = new byte[MAGIC.length];
+        tail.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Missing columnar footer in " + resource.getDescription());
+        }
+        long footerStart = fileSize - FOOTER_TAIL_SIZE - 16L * groups;
+        ByteBuffer entries = read(resource, footerStart, 16 * groups);
+        List<long[]> rowGroups = new ArrayList<>(groups);
+        for (int i = 0; i < groups; i++) {
+            rowGroups.add(new long[]{entries.getLong(), entries.getLong()});
+        }
+        return new Index(rowGroups, rows, footerStart);
+    }
+
+    static long toEpochMicros(LocalDateTime value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromEpochMicros(long micros) {
+        if (micros == NULL_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static ByteBuffer read(Resource resource, long offset, int length) throws IOException {
+        if (offset < MAGIC.length) {
+            throw new IOException("Truncated columnar file " + resource.getDescription());
+        }
+        try (InputStream in = new ByteRangeResource(resource, offset, offset + length).getInputStream()) {
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new IOException("Truncated columnar file " + resource.getDescription());
+            }
+            return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * @param rowGroups {@code {offset, firstRow}} of every row group, in file order
+     * @param dataEnd   offset of the footer, i.e. the end of the last row group
+     */
+    public record Index(List<long[]> rowGroups, long rows, long dataEnd) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.mayank.batch.reader;
+
+import com.mayank.batch.model.Record;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.util.ExecutionContextUserSupport;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the row groups in one partition's {@code [startOffset, endOffset)} byte range of a {@link ColumnarFormat}
+ * file. Ids and timestamps are fixed-width columns and payloads are length-prefixed UTF-8, so there is nothing to
+ * tokenize: each row is two {@code getLong}s and one string decode.
+ * <p>
+ * File-backed resources are memory-mapped one row group at a time; other resources are streamed into a reusable
+ * heap buffer. The current row group offset and row are saved in the {@link ExecutionContext} for restarts.
+ */
+public class ColumnarPartitionItemReader implements ItemStreamReader<Record> {
+
+    private static final String GROUP_KEY = "read.group";
+    private static final String ROW_KEY = "read.row";
+
+    // Prefixes the keys with the reader name as ItemStreamSupport did, so saved contexts stay readable
+    private final ExecutionContextUserSupport executionContextKeys =
+            new ExecutionContextUserSupport("columnarItemReader");
+
+    private final Resource resource;
+    private final long startOffset;
+    private final long endOffset;
+
+    private FileChannel fileChannel;
+    private InputStream stream;
+    private final ByteBuffer groupHeader = ByteBuffer.allocate(ColumnarFormat.GROUP_HEADER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer group;
+    private long groupOffset;
+    private int groupRows;
+    private int row;
+    private int payloadPosition;
+    private byte[] scratch = new byte[1024];
+
+    public ColumnarPartitionItemReader(Resource resource, long startOffset, long endOffset) {
+        this.resource = resource;
+        this.startOffset = Math.max(startOffset, ColumnarFormat.MAGIC.length);
+        this.endOffset = endOffset;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        groupOffset = executionContext.getLong(executionContextKeys.getKey(GROUP_KEY), startOffset);
+        int skipRows = executionContext.getInt(executionContextKeys.getKey(ROW_KEY), 0);
+        try {
+            if (resource.isFile()) {
+                fileChannel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+            } else {
+                stream = new ByteRangeResource(resource, groupOffset, endOffset).getInputStream();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open " + resource.getDescription(), e);
+        }
+        group = null;
+        if (skipRows > 0 && groupOffset < endOffset) {
+            load();
+            for (int i = 0; i < skipRows; i++) {
+                int length = group.getInt(payloadPosition);
+                payloadPosition += 4 + Math.max(length, 0);
+            }
+            row = skipRows;
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(executionContextKeys.getKey(GROUP_KEY), groupOffset);
+        executionContext.putInt(executionContextKeys.getKey(ROW_KEY), row);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        try {
+            if (fileChannel != null) {
+                fileChannel.close();
+            }
+            if (stream != null) {
+                stream.close();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close " + resource.getDescription(), e);
+        } finally {
+            fileChannel = null;
+            stream = null;
+            group = null;
+        }
+    }
+
+    @Override
+    public Record read() {
+        if (group == null || row >= groupRows) {
+            if (group != null) {
+                groupOffset += group.limit();
+                row = 0;
+            }
+            if (groupOffset >= endOffset) {
+                return null;
+            }
+            load();
+        }
+
+        int base = ColumnarFormat.GROUP_HEADER_SIZE;
+        long id = group.getLong(base + 8 * row);
+        long createdAt = group.getLong(base + 8 * (groupRows + row));
+        int length = group.getInt(payloadPosition);
+        payloadPosition += 4;
+        String payload = null;
+        if (length >= 0) {
+            byte[] bytes = scratch(length);
+            group.get(payloadPosition, bytes, 0, length);
+            payload = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            payloadPosition += length;
+        }
+        row++;
+
+        Record record = new Record();
+        record.setId(id == ColumnarFormat.NULL_VALUE ? null : id);
+        record.setPayload(payload);
+        record.setCreatedAt(ColumnarFormat.fromEpochMicros(createdAt));
+        return record;
+    }
+
+    /**
+     * Loads the row group at {@link #groupOffset}, including its header, and points the payload cursor at its
+     * first payload.
+     */
+    private void load() {
+        try {
+            groupHeader.clear();
+            if (fileChannel != null) {
+                while (groupHeader.hasRemaining()
+                        && fileChannel.read(groupHeader, groupOffset + groupHeader.position()) >= 0) {
+                    // Fill the row group header
+                }
+            } else {
+                groupHeader.put(stream.readNBytes(ColumnarFormat.GROUP_HEADER_SIZE));
+            }
+            if (groupHeader.position() < ColumnarFormat.GROUP_HEADER_SIZE) {
+                throw new IOException("Truncated row group header");
+            }
+            groupRows = groupHeader.getInt(0);
+            int size = ColumnarFormat.GROUP_HEADER_SIZE + groupHeader.getInt(4);
+
+            if (fileChannel != null) {
+                group = fileChannel.map(FileChannel.MapMode.READ_ONLY, groupOffset, size);
+            } else {
+                if (group == null || group.capacity() < size) {
+                    group = ByteBuffer.allocate(size);
+                }
+                group.clear().put(groupHeader.flip());
+                int n = stream.readNBytes(group.array(), ColumnarFormat.GROUP_HEADER_SIZE,
+                        size - ColumnarFormat.GROUP_HEADER_SIZE);
+                if (n < size - ColumnarFormat.GROUP_HEADER_SIZE) {
+                    throw new IOException("Truncated row group");
+                }
+                group.limit(size).position(0);
+            }
+            group.order(ByteOrder.LITTLE_ENDIAN);
+            payloadPosition = ColumnarFormat.GROUP_HEADER_SIZE + 16 * groupRows;
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to read " + resource.getDescription()
+                    + " at offset " + groupOffset, e);
+        }
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+}
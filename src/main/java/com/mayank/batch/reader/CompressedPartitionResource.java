@@ -0,0 +1,131 @@
+package com.mayank.batch.reader;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The decompressed lines of one partition of a compressed input.
+ * <ul>
+ *     <li>{@code gzip} - the whole file, which is read by a single partition.</li>
+ *     <li>{@code bgzf} - the blocks in {@code [startOffset, endOffset)}. A partition owns the lines whose
+ *     preceding newline falls inside its blocks (the first partition also owns the first line): it drops the
+ *     bytes up to its first newline and finishes its last line from the blocks that follow, so every line is
+ *     read exactly once without knowing uncompressed offsets in advance.</li>
+ * </ul>
+ * Boundaries are found from raw newlines, so quoted fields spanning lines are not supported in {@code bgzf} inputs.
+ */
+public class CompressedPartitionResource extends AbstractResource {
+
+    public static final String GZIP = "gzip";
+    public static final String BGZF = "bgzf";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Resource delegate;
+    private final String compression;
+    private final long startOffset;
+    private final long endOffset;
+
+    public CompressedPartitionResource(Resource delegate, String compression, long startOffset, long endOffset) {
+        this.delegate = delegate;
+        this.compression = compression;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    @Override
+    public boolean exists() {
+        return delegate.exists();
+    }
+
+    @Override
+    @NonNull
+    public InputStream getInputStream() throws IOException {
+        if (GZIP.equals(compression)) {
+            return new GZIPInputStream(delegate.getInputStream(), BUFFER_SIZE);
+        }
+        if (!BGZF.equals(compression)) {
+            throw new IOException("Unsupported compression: " + compression);
+        }
+        InputStream own = new BgzfInputStream(new ByteRangeResource(delegate, startOffset, endOffset).getInputStream());
+        return new OwnedLinesInputStream(own, startOffset > 0);
+    }
+
+    @Override
+    @NonNull
+    public String getDescription() {
+        return compression + " blocks [" + startOffset + ", " + endOffset + ") of " + delegate.getDescription();
+    }
+
+    /**
+     * Passes through the partition's own decompressed bytes, minus the line that started in an earlier partition,
+     * then the following blocks up to and including their first newline.
+     */
+    private final class OwnedLinesInputStream extends InputStream {
+
+        private InputStream current;
+        private boolean skipFirstLine;
+        private boolean inTail;
+        private boolean done;
+
+        private OwnedLinesInputStream(InputStream own, boolean skipFirstLine) {
+            this.current = own;
+            this.skipFirstLine = skipFirstLine;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (!done) {
+                if (skipFirstLine) {
+                    int c = current.read();
+                    if (c < 0) {
+                        // No newline in our blocks: the line belongs to an earlier partition
+                        done = true;
+                    } else if (c == '\n') {
+                        skipFirstLine = false;
+                    }
+                    continue;
+                }
+                if (inTail) {
+                    int c = current.read();
+                    if (c < 0 || c == '\n') {
+                        done = true;
+                    }
+                    if (c >= 0) {
+                        b[off] = (byte) c;
+                        return 1;
+                    }
+                    continue;
+                }
+                int n = current.read(b, off, len);
+                if (n > 0) {
+                    return n;
+                }
+                current.close();
+                current = new BgzfInputStream(new ByteRangeResource(delegate, endOffset,
+                        Math.max(endOffset, delegate.contentLength())).getInputStream());
+                inTail = true;
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            current.close();
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.mayank.batch.reader;
+
+import com.mayank.batch.model.Record;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.util.ExecutionContextUserSupport;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Reads the {@code id,payload,createdAt} CSV rows of one partition's byte range straight from bytes.
+ * <p>
+ * File-backed resources are memory-mapped in windows of {@code windowSize} bytes; other resources are
+ * streamed through a reusable heap buffer. Quoting follows {@code DelimitedLineTokenizer}: delimiters and
+ * newlines inside quotes are ignored, a quoted field has its surrounding quotes removed and {@code ""}
+ * collapsed to {@code "}. Ids and ISO-8601 timestamps are parsed by hand and, like the previous
+ * {@code fieldSetMapper}, malformed values are mapped to {@code null}.
+ * <p>
+ * The byte offset of the next unread line is saved in the {@link ExecutionContext} so a restarted
+ * partition resumes exactly where the last committed chunk ended.
+ */
+public class CsvPartitionItemReader implements ItemStreamReader<Record> {
+
+    private static final String OFFSET_KEY = "read.offset";
+    private static final String COUNT_KEY = "read.count";
+
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int DEFAULT_STREAM_BUFFER_SIZE = 1024 * 1024;
+
+    // Prefixes the keys with the reader name as ItemStreamSupport did, so saved contexts stay readable
+    private final ExecutionContextUserSupport executionContextKeys =
+            new ExecutionContextUserSupport("csvItemReader");
+
+    private final Resource resource;
+    private final long startOffset;
+    private long endOffset;
+
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+
+    private FileChannel fileChannel;
+    private ReadableByteChannel streamChannel;
+    private boolean streamExhausted;
+    private ByteBuffer window;
+    private long windowStart;
+
+    private long position;
+    private long readCount;
+    private byte[] scratch = new byte[1024];
+    private final int[] delimiters = new int[2];
+    private int delimiterCount;
+
+    public CsvPartitionItemReader(Resource resource, long startOffset, long endOffset) {
+        this.resource = resource;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        position = executionContext.containsKey(executionContextKeys.getKey(OFFSET_KEY))
+                ? executionContext.getLong(executionContextKeys.getKey(OFFSET_KEY))
+                : startOffset;
+        readCount = executionContext.getLong(executionContextKeys.getKey(COUNT_KEY), 0L);
+        try {
+            if (resource.isFile()) {
+                fileChannel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+                endOffset = Math.min(endOffset, fileChannel.size());
+            } else {
+                streamChannel = new ByteRangeResource(resource, position, endOffset).readableChannel();
+                window = ByteBuffer.allocate(Math.min(windowSize, DEFAULT_STREAM_BUFFER_SIZE)).limit(0);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open " + resource.getDescription(), e);
+        }
+        windowStart = position;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(executionContextKeys.getKey(OFFSET_KEY), position);
+        executionContext.putLong(executionContextKeys.getKey(COUNT_KEY), readCount);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        try {
+            if (fileChannel != null) {
+                fileChannel.close();
+            }
+            if (streamChannel != null) {
+                streamChannel.close();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close " + resource.getDescription(), e);
+        } finally {
+            fileChannel = null;
+            streamChannel = null;
+            window = null;
+        }
+    }
+
+    @Override
+    public Record read() {
+        while (position < endOffset) {
+            if (window == null || position - windowStart >= window.limit()) {
+                load(position);
+                if (position - windowStart >= window.limit()) {
+                    // The stream ended before the partition's end offset
+                    return null;
+                }
+            }
+
+            int lineStart = (int) (position - windowStart);
+            int lineEnd = findLineEnd(lineStart);
+            if (lineEnd < 0) {
+                // The line runs past the window: slide the window to the line start, growing it if needed
+                if (lineStart == 0) {
+                    windowSize = windowSize > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : windowSize * 2;
+                }
+                load(position);
+                continue;
+            }
+
+            long nextPosition = Math.min(windowStart + lineEnd + 1, endOffset);
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && window.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+
+            if (isBlankOrComment(lineStart, contentEnd)) {
+                position = nextPosition;
+                continue;
+            }
+
+            readCount++;
+            Record record = mapLine(lineStart, contentEnd);
+            position = nextPosition;
+            return record;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the window index of the newline ending the line at {@code lineStart} (or the end of the
+     * partition for a final line without one), or {@code -1} if the line continues past the window.
+     * Delimiters outside quotes are counted and the first two are recorded in {@link #delimiters}.
+     */
+    private int findLineEnd(int lineStart) {
+        ByteBuffer buffer = window;
+        int limit = buffer.limit();
+        int count = 0;
+        boolean inQuotes = false;
+        for (int i = lineStart; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes) {
+                if (b == '\n') {
+                    delimiterCount = count;
+                    return i;
+                }
+                if (b == ',') {
+                    if (count < 2) {
+                        delimiters[count] = i;
+                    }
+                    count++;
+                }
+            }
+        }
+        if (windowStart + limit >= endOffset || streamExhausted) {
+            delimiterCount = count;
+            return limit;
+        }
+        return -1;
+    }
+
+    private Record mapLine(int lineStart, int contentEnd) {
+        if (delimiterCount != 2) {
+            throw incorrectTokenCount(lineStart, contentEnd);
+        }
+        Record record = new Record();
+        record.setId(parseId(lineStart, delimiters[0]));
+        record.setPayload(decodeString(delimiters[0] + 1, delimiters[1]));
+        record.setCreatedAt(parseTimestamp(delimiters[1] + 1, contentEnd));
+        return record;
+    }
+
+    private FlatFileParseException incorrectTokenCount(int lineStart, int contentEnd) {
+        String line = decodeRaw(lineStart, contentEnd);
+        int lineNumber = (int) readCount;
+        return new FlatFileParseException("Parsing error at line: " + lineNumber + " in resource=["
+                + resource.getDescription() + "], input=[" + line + "]", line, lineNumber);
+    }
+
+    private void load(long offset) {
+        try {
+            if (fileChannel != null) {
+                long size = Math.min(windowSize, endOffset - offset);
+                window = fileChannel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            } else {
+                // Keep the unread tail, growing the buffer if a single line already fills it
+                int keep = (int) (windowStart + window.limit() - offset);
+                ByteBuffer buffer = window;
+                if (keep == buffer.capacity()) {
+                    buffer = ByteBuffer.allocate(Math.max(windowSize, buffer.capacity() * 2)).put(window.rewind());
+                } else {
+                    buffer.position(buffer.limit() - keep);
+                    buffer.compact();
+                }
+                while (buffer.hasRemaining()) {
+                    if (streamChannel.read(buffer) < 0) {
+                        streamExhausted = true;
+                        break;
+                    }
+                }
+                window = buffer.flip();
+            }
+            windowStart = offset;
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to read " + resource.getDescription() + " at offset " + offset, e);
+        }
+    }
+
+    private boolean isBlankOrComment(int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = window.get(i);
+            if (b == '#' && i == from) {
+                return true;
+            }
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Equivalent of {@code Long.parseLong(value.trim())} that returns {@code null} instead of throwing.
+     */
+    private Long parseId(int from, int to) {
+        from = skipLeadingWhitespace(from, to);
+        to = skipTrailingWhitespace(from, to);
+        if (to - from >= 2 && window.get(from) == '"' && window.get(to - 1) == '"') {
+            from++;
+            to--;
+        }
+        if (from >= to) {
+            return null;
+        }
+        boolean negative = false;
+        byte first = window.get(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++from == to) {
+                return null;
+            }
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = window.get(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                return null;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Decodes a field the way {@code DelimitedLineTokenizer} does: quoted values are trimmed, unwrapped
+     * and have doubled quotes collapsed, anything else is returned as-is.
+     */
+    private String decodeString(int from, int to) {
+        int trimmedFrom = skipLeadingWhitespace(from, to);
+        int trimmedTo = skipTrailingWhitespace(trimmedFrom, to);
+        if (trimmedTo - trimmedFrom < 1 || window.get(trimmedFrom) != '"' || window.get(trimmedTo - 1) != '"') {
+            return decodeRaw(from, to);
+        }
+        if (trimmedTo - trimmedFrom == 1) {
+            return "";
+        }
+        int length = 0;
+        byte[] out = scratch(trimmedTo - trimmedFrom);
+        for (int i = trimmedFrom + 1; i < trimmedTo - 1; i++) {
+            byte b = window.get(i);
+            out[length++] = b;
+            if (b == '"' && i + 1 < trimmedTo - 1 && window.get(i + 1) == '"') {
+                i++;
+            }
+        }
+        return new String(out, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String decodeRaw(int from, int to) {
+        byte[] out = scratch(to - from);
+        window.get(from, out, 0, to - from);
+        return new String(out, 0, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm[:ss[.fffffffff]]}, the shapes produced by {@code LocalDateTime.toString()},
+     * returning {@code null} for anything else or for out-of-range fields.
+     */
+    private LocalDateTime parseTimestamp(int from, int to) {
+        from = skipLeadingWhitespace(from, to);
+        to = skipTrailingWhitespace(from, to);
+        if (to - from >= 2 && window.get(from) == '"' && window.get(to - 1) == '"') {
+            from++;
+            to--;
+        }
+        int length = to - from;
+        if (length < 16 || window.get(from + 4) != '-' || window.get(from + 7) != '-'
+                || window.get(from + 10) != 'T' || window.get(from + 13) != ':') {
+            return null;
+        }
+        int year = digits(from, 4);
+        int month = digits(from + 5, 2);
+        int day = digits(from + 8, 2);
+        int hour = digits(from + 11, 2);
+        int minute = digits(from + 14, 2);
+        int second = 0;
+        int nanos = 0;
+        if (length > 16) {
+            if (length < 19 || window.get(from + 16) != ':') {
+                return null;
+            }
+            second = digits(from + 17, 2);
+            if (length > 19) {
+                int fractionDigits = length - 20;
+                if (window.get(from + 19) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                    return null;
+                }
+                nanos = digits(from + 20, fractionDigits);
+                for (int i = fractionDigits; i < 9 && nanos >= 0; i++) {
+                    nanos *= 10;
+                }
+            }
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59 || nanos < 0
+                || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+    }
+
+    /**
+     * Reads {@code count} ASCII digits as an int, or returns {@code -1} if any byte is not a digit.
+     */
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = window.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private int skipLeadingWhitespace(int from, int to) {
+        while (from < to && window.get(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private int skipTrailingWhitespace(int from, int to) {
+        while (to > from && window.get(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mayank.batch.reader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * The whole {@code record_fingerprint} table, loaded once per job execution for the partitions that have no id
+ * range (compressed, columnar and remote inputs), so concurrent partitions share one copy instead of each scanning
+ * the table. A later job execution replaces it, and the manager drops it when the job ends.
+ */
+@Component
+public class FingerprintCache implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FingerprintCache.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private long jobExecutionId;
+    private FingerprintSnapshot snapshot;
+
+    public FingerprintCache(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Returns the job execution's snapshot, loading it on first use; partitions asking meanwhile wait for that load.
+     */
+    public synchronized FingerprintSnapshot forJob(long jobExecutionId) {
+        if (snapshot == null || this.jobExecutionId != jobExecutionId) {
+            snapshot = null;
+            snapshot = FingerprintSnapshot.load(jdbcTemplate, Long.MIN_VALUE, Long.MAX_VALUE);
+            this.jobExecutionId = jobExecutionId;
+            log.info("Loaded {} record fingerprints for job execution {}", snapshot.size(), jobExecutionId);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void afterJob(@NonNull JobExecution jobExecution) {
+        if (snapshot != null && jobExecution.getId() != null && jobExecution.getId() == jobExecutionId) {
+            snapshot = null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.mayank.batch.reader;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+/**
+ * Read-only copy of the {@code record_fingerprint} rows of an id range, held as two sorted {@code long} arrays
+ * (16 bytes per id) and searched by binary search. Safe to share between partitions once loaded.
+ */
+public final class FingerprintSnapshot {
+
+    private static final String LOAD_SQL =
+            "SELECT id, fingerprint FROM record_fingerprint WHERE id BETWEEN ? AND ? ORDER BY id";
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final long[] ids;
+    private final long[] fingerprints;
+    private final int size;
+
+    private FingerprintSnapshot(long[] ids, long[] fingerprints, int size) {
+        this.ids = ids;
+        this.fingerprints = fingerprints;
+        this.size = size;
+    }
+
+    /**
+     * Loads the fingerprints of ids {@code [minId, maxId]}, streaming the rows rather than buffering the result set.
+     */
+    public static FingerprintSnapshot load(JdbcTemplate jdbcTemplate, long minId, long maxId) {
+        return jdbcTemplate.execute((ConnectionCallback<FingerprintSnapshot>) connection -> {
+            // PostgreSQL only streams rows with a fetch size inside a transaction
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(LOAD_SQL)) {
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setLong(1, minId);
+                ps.setLong(2, maxId);
+                long[] ids = new long[0];
+                long[] fingerprints = new long[0];
+                int size = 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        if (size == ids.length) {
+                            int capacity = Math.max(1024, size * 2);
+                            ids = Arrays.copyOf(ids, capacity);
+                            fingerprints = Arrays.copyOf(fingerprints, capacity);
+                        }
+                        ids[size] = rs.getLong(1);
+                        fingerprints[size] = rs.getLong(2);
+                        size++;
+                    }
+                }
+                connection.commit();
+                return new FingerprintSnapshot(ids, fingerprints, size);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    /**
+     * @return the position of {@code id}, or a negative number if it has no fingerprint
+     */
+    public int indexOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    public long fingerprintAt(int index) {
+        return fingerprints[index];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mayank.batch.reader;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.Storage;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.lang.NonNull;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A {@code gs://} object read with ranged requests.
+ * <p>
+ * Each channel is positioned at its start offset and limited to its end offset, so a partition only transfers
+ * its own slice of the object. {@code readAheadBytes} is the channel chunk size: the number of bytes fetched
+ * per request and buffered ahead of the reader.
+ */
+public class GcsRangeResource extends AbstractResource implements RangeReadableResource {
+
+    private final Storage storage;
+    private final BlobId blobId;
+    private final int readAheadBytes;
+
+    private volatile Blob blob;
+
+    public GcsRangeResource(Storage storage, String location, int readAheadBytes) {
+        this.storage = storage;
+        this.blobId = BlobId.fromGsUtilUri(location);
+        this.readAheadBytes = readAheadBytes;
+    }
+
+    @Override
+    public boolean exists() {
+        return blob() != null;
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        Blob metadata = blob();
+        if (metadata == null || metadata.getSize() == null) {
+            throw new FileNotFoundException(getDescription() + " does not exist");
+        }
+        return metadata.getSize();
+    }
+
+    @Override
+    public ReadableByteChannel readableChannel(long startOffset, long endOffset) throws IOException {
+        ReadChannel channel = storage.reader(blobId);
+        if (readAheadBytes > 0) {
+            channel.setChunkSize(readAheadBytes);
+        }
+        channel.seek(startOffset);
+        return channel.limit(endOffset);
+    }
+
+    @Override
+    @NonNull
+    public InputStream getInputStream() throws IOException {
+        return Channels.newInputStream(readableChannel(0, contentLength()));
+    }
+
+    @Override
+    @NonNull
+    public URI getURI() {
+        return URI.create("gs://" + blobId.getBucket() + "/" + blobId.getName());
+    }
+
+    @Override
+    public String getFilename() {
+        String name = blobId.getName();
+        return name.substring(name.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    @NonNull
+    public String getDescription() {
+        return "GCS object [gs://" + blobId.getBucket() + "/" + blobId.getName() + "]";
+    }
+
+    private Blob blob() {
+        if (blob == null) {
+            blob = storage.get(blobId);
+        }
+        return blob;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mayank.batch.reader;
+
+import com.mayank.batch.model.Record;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+/**
+ * Passes on only the records whose id lies in {@code [minId, maxId]}, for partitions cut by id
+ * ({@code partition.by=id}) that share byte ranges with other partitions. Records without an id belong to the range
+ * starting at {@link Long#MIN_VALUE}, so each is still read by exactly one partition.
+ * <p>
+ * Dropped records are never returned, so the delegate's saved position stays valid for restarts.
+ */
+public class IdRangeFilteringItemReader implements ItemStreamReader<Record> {
+
+    private final ItemStreamReader<Record> delegate;
+    private final long minId;
+    private final long maxId;
+
+    public IdRangeFilteringItemReader(ItemStreamReader<Record> delegate, long minId, long maxId) {
+        this.delegate = delegate;
+        this.minId = minId;
+        this.maxId = maxId;
+    }
+
+    @Override
+    public Record read() throws Exception {
+        Record record;
+        while ((record = delegate.read()) != null) {
+            Long id = record.getId();
+            if (id == null ? minId == Long.MIN_VALUE : id >= minId && id <= maxId) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,33 @@
+package com.mayank.batch.reader;
+
+import com.google.cloud.storage.Storage;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.lang.Nullable;
+
+/**
+ * Resolves the {@code inputFile} location shared by the partitioner and the partition readers.
+ */
+public final class InputResources {
+
+    private InputResources() {
+    }
+
+    /**
+     * {@code gs://} locations become a {@link GcsRangeResource} when a {@link Storage} client is available.
+     * Anything else goes through the {@link ResourceLoader}, falling back to {@link FileSystemResource} when the
+     * loader does not resolve an existing resource (e.g. an absolute path interpreted as a ServletContextResource).
+     */
+    public static Resource resolve(ResourceLoader resourceLoader, @Nullable Storage storage, String location,
+                                   int readAheadBytes) {
+        if (storage != null && location.startsWith("gs://")) {
+            return new GcsRangeResource(storage, location, readAheadBytes);
+        }
+        Resource resource = resourceLoader.getResource(location);
+        if (resource == null || !resource.exists()) {
+            resource = new FileSystemResource(location);
+        }
+        return resource;
+    }
+}
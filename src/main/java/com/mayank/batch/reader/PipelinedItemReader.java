@@ -0,0 +1,209 @@
+package com.mayank.batch.reader;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and processes items on a background thread while the step thread writes the previous chunk.
+ * <p>
+ * Processed items are handed over through a bounded queue of {@code capacity} items, which provides
+ * backpressure when writing is the slower stage. Items the processor filters out never reach the step.
+ * <p>
+ * Because the delegate reader runs ahead of the step, its own state cannot be saved on
+ * {@link #update(ExecutionContext)}. Instead the producer snapshots the delegate every
+ * {@code checkpointInterval} delivered items (the commit interval), and {@code update} publishes the
+ * snapshot taken at the number of items the step has consumed, which is exactly the last committed
+ * chunk boundary. If commits do not line up with the interval, the nearest earlier snapshot is used and
+ * a restart re-reads at most one interval of items.
+ * <p>
+ * Processor failures end the pipeline, except those of the {@code itemFailureType} given to the constructor: they are
+ * rethrown by {@link #read()} in place of their item and the pipeline carries on, so the step's skip policy can deal
+ * with them as read failures. Any other failure of the reader or processor, including an {@link Error}, is rethrown by
+ * {@link #read()} once the items produced before it have been consumed.
+ */
+public class PipelinedItemReader<I, O> implements ItemStreamReader<O> {
+
+    private static final Object END = new Object();
+
+    // How often a step thread waiting for items checks whether the producer has failed
+    private static final long FAILURE_CHECK_MILLIS = 100L;
+
+    private final ItemStreamReader<I> delegate;
+    private final ItemProcessor<? super I, ? extends O> processor;
+    private final int checkpointInterval;
+    private final int capacity;
+    private final Class<? extends Exception> itemFailureType;
+
+    private final ConcurrentSkipListMap<Long, ExecutionContext> checkpoints = new ConcurrentSkipListMap<>();
+
+    private BlockingQueue<Object> queue;
+    private Thread producer;
+    private volatile boolean stopped;
+    // Set by the producer instead of being queued, since the queue may be full of items nobody will take
+    private volatile Throwable fatalFailure;
+    private boolean exhausted;
+    private long consumed;
+
+    public PipelinedItemReader(ItemStreamReader<I> delegate,
+                               ItemProcessor<? super I, ? extends O> processor,
+                               int checkpointInterval,
+                               int capacity) {
+        this(delegate, processor, checkpointInterval, capacity, null);
+    }
+
+    public PipelinedItemReader(ItemStreamReader<I> delegate,
+                               ItemProcessor<? super I, ? extends O> processor,
+                               int checkpointInterval,
+                               int capacity,
+                               Class<? extends Exception> itemFailureType) {
+        this.delegate = delegate;
+        this.processor = processor;
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+        this.capacity = Math.max(1, capacity);
+        this.itemFailureType = itemFailureType;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+        checkpoints.clear();
+        checkpoints.put(0L, snapshot());
+        queue = new ArrayBlockingQueue<>(capacity);
+        stopped = false;
+        fatalFailure = null;
+        exhausted = false;
+        consumed = 0L;
+
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        StepExecution stepExecution = stepContext == null ? null : stepContext.getStepExecution();
+        String name = stepExecution == null ? "main"
+                : stepExecution.getExecutionContext().getString("partitionId", stepExecution.getStepName());
+        producer = new Thread(() -> produce(stepExecution), "pipeline-" + name);
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public O read() throws Exception {
+        if (exhausted) {
+            return null;
+        }
+        Object next;
+        while ((next = queue.poll(FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            Throwable failure = fatalFailure;
+            // Items produced before the failure were queued first, so they have all been consumed
+            if (failure != null && queue.isEmpty()) {
+                exhausted = true;
+                if (failure instanceof Error error) {
+                    throw error;
+                }
+                throw (Exception) failure;
+            }
+        }
+        if (next == END) {
+            exhausted = true;
+            return null;
+        }
+        if (next instanceof Failure failure) {
+            throw failure.cause;
+        }
+        consumed++;
+        return (O) next;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        Map.Entry<Long, ExecutionContext> checkpoint = checkpoints.floorEntry(consumed);
+        if (checkpoint == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : checkpoint.getValue().entrySet()) {
+            executionContext.put(entry.getKey(), entry.getValue());
+        }
+        checkpoints.headMap(checkpoint.getKey()).clear();
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        stopped = true;
+        if (producer != null) {
+            producer.interrupt();
+            try {
+                producer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            producer = null;
+        }
+        queue = null;
+        delegate.close();
+    }
+
+    private void produce(StepExecution stepExecution) {
+        // Step-scoped delegates resolve their target through the current thread's step context
+        if (stepExecution != null) {
+            StepSynchronizationManager.register(stepExecution);
+        }
+        try {
+            long produced = 0L;
+            while (!stopped) {
+                I item = delegate.read();
+                if (item == null) {
+                    checkpoints.put(produced, snapshot());
+                    queue.put(END);
+                    return;
+                }
+                O processed;
+                try {
+                    processed = processor.process(item);
+                } catch (Exception e) {
+                    if (itemFailureType == null || !itemFailureType.isInstance(e)) {
+                        throw e;
+                    }
+                    queue.put(new Failure(e));
+                    continue;
+                }
+                if (processed == null) {
+                    continue;
+                }
+                produced++;
+                // Snapshot before handing the item over so the checkpoint always exists once it is consumed
+                if (produced % checkpointInterval == 0) {
+                    checkpoints.put(produced, snapshot());
+                }
+                queue.put(processed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            if (!stopped) {
+                fatalFailure = e;
+            }
+        } finally {
+            if (stepExecution != null) {
+                StepSynchronizationManager.close();
+            }
+        }
+    }
+
+    private ExecutionContext snapshot() {
+        ExecutionContext snapshot = new ExecutionContext();
+        delegate.update(snapshot);
+        return snapshot;
+    }
+
+    private record Failure(Exception cause) {
+    }
+}
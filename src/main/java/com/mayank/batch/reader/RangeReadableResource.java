@@ -0,0 +1,24 @@
+package com.mayank.batch.reader;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A resource that can serve any byte range without transferring the bytes before it, such as an object in a
+ * remote store that supports ranged reads.
+ * <p>
+ * {@link ByteRangeResource} and {@link CsvPartitionItemReader} open only their partition's slice through
+ * {@link #readableChannel(long, long)}, and {@code RangePartitioner} probes for line boundaries instead of
+ * streaming the whole object. Local files do not need this: they are already read through a positioned
+ * {@code FileChannel}.
+ */
+public interface RangeReadableResource extends Resource {
+
+    /**
+     * Opens a channel over {@code [startOffset, endOffset)}. The channel may end early at the end of the
+     * resource; callers must not rely on it stopping exactly at {@code endOffset}.
+     */
+    ReadableByteChannel readableChannel(long startOffset, long endOffset) throws IOException;
+}
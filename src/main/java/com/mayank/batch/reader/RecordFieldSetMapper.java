@@ -0,0 +1,37 @@
+package com.mayank.batch.reader;
+
+import com.mayank.batch.model.Record;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Maps an {@code id,payload,createdAt} {@link FieldSet} to a {@link Record} for the
+ * {@code FlatFileItemReader} path. Fields that fail to parse are set to {@code null}.
+ */
+public class RecordFieldSetMapper implements FieldSetMapper<Record> {
+
+    @Override
+    @NonNull
+    public Record mapFieldSet(@NonNull FieldSet fieldSet) {
+        Record r = new Record();
+        try {
+            r.setId(fieldSet.readLong("id"));
+        } catch (Exception e) {
+            r.setId(null);
+        }
+        try {
+            r.setPayload(fieldSet.readString("payload"));
+        } catch (Exception e) {
+            r.setPayload(null);
+        }
+        try {
+            r.setCreatedAt(LocalDateTime.parse(fieldSet.readString("createdAt")));
+        } catch (Exception e) {
+            r.setCreatedAt(null);
+        }
+        return r;
+    }
+}
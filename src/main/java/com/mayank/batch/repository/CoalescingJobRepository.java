@@ -0,0 +1,267 @@
+package com.mayank.batch.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps the JDBC JobRepository to count metadata round trips and, optionally, to write the per-chunk checkpoint of a
+ * running step less often.
+ * <p>
+ * A chunk-oriented step calls {@link #updateExecutionContext(StepExecution)} and {@link #update(StepExecution)} in
+ * every chunk transaction; each is an UPDATE, and the step update also reads the job status to notice stop requests.
+ * With {@code flushEveryChunks > 1} those calls only reach the delegate every that many chunks, or once
+ * {@code flushMillis} have passed since the last write. The first chunk, status changes and the final update of a
+ * step always go through, so the tables are exact once a step ends. While it runs, {@code BATCH_STEP_EXECUTION}
+ * lags by up to that many chunks and a stop request is noticed at the next write.
+ * <p>
+ * With {@code afterCommit} (metadata in a separate database) the chunk writes run once the chunk transaction has
+ * committed, so a checkpoint is never ahead of the data it describes.
+ * <p>
+ * Meters: {@code batch.metadata.calls} (tags {@code operation}, {@code outcome=sent|coalesced}) and
+ * {@code batch.metadata.calls.per.chunk}, recorded per step execution when it ends.
+ */
+public class CoalescingJobRepository implements JobRepository {
+
+    private final JobRepository delegate;
+    private final int flushEveryChunks;
+    private final long flushNanos;
+    private final boolean afterCommit;
+    private final MeterRegistry registry;
+    private final Map<Long, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+
+    public CoalescingJobRepository(JobRepository delegate, int flushEveryChunks, long flushMillis,
+                                   boolean afterCommit, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.flushEveryChunks = Math.max(1, flushEveryChunks);
+        this.flushNanos = flushMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(flushMillis) : Long.MAX_VALUE;
+        this.afterCommit = afterCommit;
+        this.registry = registry;
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        if (!isChunkCheckpoint(stepExecution)) {
+            sendAfterCommit("step.update", stepExecution, () -> delegate.update(stepExecution));
+            return;
+        }
+        Checkpoint checkpoint = checkpoint(stepExecution);
+        if (checkpoint.flushNext || checkpoint.isDue(stepExecution.getCommitCount())) {
+            checkpoint.flushed(stepExecution.getCommitCount());
+            sendAfterCommit("step.update", stepExecution, () -> delegate.update(stepExecution));
+        } else {
+            coalesced("step.update");
+        }
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        if (!isChunkCheckpoint(stepExecution)) {
+            if (stepExecution.getStatus() == BatchStatus.STARTED) {
+                // The first chunk's checkpoint; its step update goes along with it
+                checkpoint(stepExecution).flushNext = true;
+            }
+            sendAfterCommit("step.context", stepExecution, () -> delegate.updateExecutionContext(stepExecution));
+            return;
+        }
+        // Called before the commit count is incremented, so compare with the count this checkpoint belongs to
+        Checkpoint checkpoint = checkpoint(stepExecution);
+        if (checkpoint.isDue(stepExecution.getCommitCount() + 1)) {
+            checkpoint.flushNext = true;
+            sendAfterCommit("step.context", stepExecution, () -> delegate.updateExecutionContext(stepExecution));
+        } else {
+            coalesced("step.context");
+        }
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        send("step.add", null, () -> delegate.add(stepExecution));
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        send("step.add", null, () -> delegate.addAll(stepExecutions));
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        send("job.update", null, () -> delegate.update(jobExecution));
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        send("job.context", null, () -> delegate.updateExecutionContext(jobExecution));
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+            throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        count("job.create", "sent");
+        return delegate.createJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        count("job.create", "sent");
+        return delegate.createJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        count("read", "sent");
+        return delegate.isJobInstanceExists(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance getJobInstance(String jobName, JobParameters jobParameters) {
+        count("read", "sent");
+        return delegate.getJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        count("read", "sent");
+        return delegate.getLastStepExecution(jobInstance, stepName);
+    }
+
+    @Override
+    public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        count("read", "sent");
+        return delegate.getStepExecutionCount(jobInstance, stepName);
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        count("read", "sent");
+        return delegate.getLastJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public List<String> getJobNames() {
+        return delegate.getJobNames();
+    }
+
+    @Override
+    public List<JobInstance> findJobInstancesByName(String jobName, int start, int count) {
+        return delegate.findJobInstancesByName(jobName, start, count);
+    }
+
+    @Override
+    public List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+        return delegate.findJobExecutions(jobInstance);
+    }
+
+    @Override
+    public void deleteStepExecution(StepExecution stepExecution) {
+        delegate.deleteStepExecution(stepExecution);
+    }
+
+    @Override
+    public void deleteJobExecution(JobExecution jobExecution) {
+        delegate.deleteJobExecution(jobExecution);
+    }
+
+    @Override
+    public void deleteJobInstance(JobInstance jobInstance) {
+        delegate.deleteJobInstance(jobInstance);
+    }
+
+    /**
+     * A write made by the chunk loop of a running step, after its first chunk.
+     */
+    private static boolean isChunkCheckpoint(StepExecution stepExecution) {
+        return stepExecution.getStatus() == BatchStatus.STARTED
+                && stepExecution.getEndTime() == null
+                && !stepExecution.isTerminateOnly()
+                && stepExecution.getCommitCount() > 0;
+    }
+
+    private Checkpoint checkpoint(StepExecution stepExecution) {
+        return checkpoints.computeIfAbsent(stepExecution.getId(), id -> new Checkpoint());
+    }
+
+    private void sendAfterCommit(String operation, StepExecution stepExecution, Runnable call) {
+        if (afterCommit && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(operation, stepExecution, call);
+                }
+            });
+            return;
+        }
+        send(operation, stepExecution, call);
+    }
+
+    private void send(String operation, StepExecution stepExecution, Runnable call) {
+        call.run();
+        count(operation, "sent");
+        if (stepExecution != null && stepExecution.getId() != null) {
+            checkpoint(stepExecution).sent++;
+            if (operation.equals("step.update") && stepExecution.getEndTime() != null) {
+                finish(stepExecution);
+            }
+        }
+    }
+
+    private void coalesced(String operation) {
+        count(operation, "coalesced");
+    }
+
+    private void count(String operation, String outcome) {
+        Counter.builder("batch.metadata.calls")
+                .description("JobRepository calls, sent to the metadata tables or coalesced into a later write")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    private void finish(StepExecution stepExecution) {
+        Checkpoint checkpoint = checkpoints.remove(stepExecution.getId());
+        String stepName = stepExecution.getStepName();
+        int partitionSeparator = stepName.indexOf(':');
+        DistributionSummary.builder("batch.metadata.calls.per.chunk")
+                .description("Metadata calls sent per committed chunk of a step execution")
+                .tag("step", partitionSeparator < 0 ? stepName : stepName.substring(0, partitionSeparator))
+                .register(registry)
+                .record((double) checkpoint.sent / Math.max(1, stepExecution.getCommitCount()));
+    }
+
+    private final class Checkpoint {
+
+        // Only touched by the thread running the step execution
+        private long lastFlushNanos = System.nanoTime();
+        private long flushedCommits;
+        private boolean flushNext;
+        private long sent;
+
+        boolean isDue(long commitCount) {
+            return commitCount - flushedCommits >= flushEveryChunks || System.nanoTime() - lastFlushNanos >= flushNanos;
+        }
+
+        void flushed(long commitCount) {
+            flushedCommits = commitCount;
+            lastFlushNanos = System.nanoTime();
+            flushNext = false;
+        }
+    }
+}
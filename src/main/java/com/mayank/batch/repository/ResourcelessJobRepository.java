@@ -0,0 +1,96 @@
+package com.mayank.batch.repository;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JobRepository that keeps nothing: executions get ids from in-memory counters and every update is dropped, so a run
+ * makes no metadata round trips at all. For benchmark runs that measure the load itself.
+ * <p>
+ * There is no restart: every launch is a new job instance starting from the beginning of its input, nothing shows up
+ * in the {@code BATCH_*} tables, a stop request through the database is never seen, and remote partitioning (which
+ * reads partition status back from those tables) cannot be used.
+ */
+public class ResourcelessJobRepository implements JobRepository {
+
+    private final AtomicLong jobInstanceIds = new AtomicLong();
+    private final AtomicLong jobExecutionIds = new AtomicLong();
+    private final AtomicLong stepExecutionIds = new AtomicLong();
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return false;
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        JobInstance jobInstance = new JobInstance(jobInstanceIds.incrementAndGet(), jobName);
+        jobInstance.setVersion(0);
+        return jobInstance;
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters) {
+        JobExecution jobExecution = new JobExecution(createJobInstance(jobName, jobParameters),
+                jobExecutionIds.incrementAndGet(), jobParameters);
+        jobExecution.setExecutionContext(new ExecutionContext());
+        jobExecution.setCreateTime(LocalDateTime.now());
+        jobExecution.setLastUpdated(jobExecution.getCreateTime());
+        jobExecution.setVersion(0);
+        return jobExecution;
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        jobExecution.setLastUpdated(LocalDateTime.now());
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        // Partition steps and metrics listeners key their state by step execution id
+        stepExecution.setId(stepExecutionIds.incrementAndGet());
+        stepExecution.setVersion(0);
+        stepExecution.setLastUpdated(LocalDateTime.now());
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        stepExecutions.forEach(this::add);
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        stepExecution.setLastUpdated(LocalDateTime.now());
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return null;
+    }
+
+    @Override
+    public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return 0;
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return null;
+    }
+}
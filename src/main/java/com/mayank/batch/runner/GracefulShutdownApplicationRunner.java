@@ -1,41 +1,61 @@
 package com.mayank.batch.runner;
 
+import com.mayank.batch.listener.LifecycleMetricsListener;
+import com.mayank.batch.partitioner.PartitionWorker;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import io.micrometer.stackdriver.StackdriverMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.batch.JobLauncherApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * A custom ApplicationRunner that ensures a graceful shutdown for the StackdriverMeterRegistry
  * after a Spring Batch job completes. This prevents race conditions where the application
- * shuts down before all metrics have been published.
+ * shuts down before all metrics have been published. The flush takes as long as the final publish to Cloud
+ * Monitoring and no longer, bounded by {@code metrics.flushTimeoutSeconds}.
+ * <p>
+ * Worker tasks of {@code partition.remote.enabled=true} run {@link PartitionWorker} instead of launching the job, and
+ * exit with 1 if any partition they executed did not complete.
  */
 @Component
+@ConditionalOnProperty(prefix = "spring.batch.job", name = "enabled", havingValue = "true", matchIfMissing = true)
 @Order(0) // Ensure this runner executes before the default JobLauncherApplicationRunner
 public class GracefulShutdownApplicationRunner implements ApplicationRunner {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GracefulShutdownApplicationRunner.class);
 
     private final JobLauncherApplicationRunner jobLauncherApplicationRunner;
+    private final PartitionWorker partitionWorker;
+    private final LifecycleMetricsListener lifecycleMetricsListener;
     private final MeterRegistry meterRegistry;
     private final ConfigurableApplicationContext context;
 
+    @Value("${metrics.flushTimeoutSeconds:30}")
+    private long flushTimeoutSeconds;
+
     public GracefulShutdownApplicationRunner(
             JobLauncherApplicationRunner jobLauncherApplicationRunner,
+            PartitionWorker partitionWorker,
+            LifecycleMetricsListener lifecycleMetricsListener,
             MeterRegistry meterRegistry,
             ConfigurableApplicationContext context) {
         this.jobLauncherApplicationRunner = jobLauncherApplicationRunner;
+        this.partitionWorker = partitionWorker;
+        this.lifecycleMetricsListener = lifecycleMetricsListener;
         this.meterRegistry = meterRegistry;
         this.context = context;
     }
@@ -44,8 +64,13 @@ public class GracefulShutdownApplicationRunner implements ApplicationRunner {
     public void run(ApplicationArguments args) throws Exception {
         int exitCode = 0;
         try {
-            // Execute the Spring Batch job using the default runner
-            this.jobLauncherApplicationRunner.run(args);
+            if (partitionWorker.isRemoteWorker()) {
+                // Partitions of the job launched by task 0 are claimed from partition_work
+                exitCode = partitionWorker.run() == 0 ? 0 : 1;
+            } else {
+                // Execute the Spring Batch job using the default runner
+                this.jobLauncherApplicationRunner.run(args);
+            }
         } catch (Exception e) {
             LOGGER.error("Job execution failed.", e);
             exitCode = 1;
@@ -58,20 +83,21 @@ public class GracefulShutdownApplicationRunner implements ApplicationRunner {
     private void gracefulShutdown(int exitCode) {
         LOGGER.info("Job finished. Starting graceful shutdown of metrics registry...");
 
+        lifecycleMetricsListener.recordExit();
         findStackdriverMeterRegistry(this.meterRegistry).ifPresentOrElse(stackdriverRegistry -> {
+            long start = System.nanoTime();
             try {
                 LOGGER.info("Closing StackdriverMeterRegistry to flush pending metrics...");
-                // Calling close() on the registry flushes pending metrics and shuts down its resources.
-                // This is a blocking call.
-                stackdriverRegistry.close();
-                LOGGER.info("StackdriverMeterRegistry closed successfully.");
-
-                // Optional: A brief delay to ensure async network operations fully complete.
-                TimeUnit.SECONDS.sleep(5);
-
+                // close() returns once the final CreateTimeSeries calls have been answered (see
+                // FlushingStackdriverMeterRegistry); the timeout only guards against a hung export
+                CompletableFuture.runAsync(stackdriverRegistry::close).get(flushTimeoutSeconds, TimeUnit.SECONDS);
+                LOGGER.info("StackdriverMeterRegistry flushed in {} ms.",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
-                LOGGER.warn("Shutdown delay was interrupted.", e);
+                LOGGER.warn("Metrics flush was interrupted.", e);
+            } catch (TimeoutException e) {
+                LOGGER.warn("Metrics flush did not finish within {} seconds, exiting anyway.", flushTimeoutSeconds);
             } catch (Exception e) {
                 LOGGER.error("Error during graceful shutdown of metrics registry:", e);
             }
@@ -0,0 +1,242 @@
+package com.mayank.batch.runner;
+
+import com.mayank.batch.SpringBatchBenchmarkApplication;
+import com.mayank.batch.jdbc.PartitionAwareDataSource;
+import com.mayank.batch.listener.ChunkMetricsListener;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@code probeJob} locally over a matrix of datasets, chunk sizes, grid sizes, retry attempts and writer
+ * strategies, configured through the same environment variables as {@code scripts/run_benchmarks.sh}.
+ * <p>
+ * Every matrix cell gets its own application context (chunk size, grid size and writer strategy are fixed when
+ * the step beans are built), but all cells share this JVM, so JIT-compiled code stays warm between them. Each cell
+ * runs {@code WARMUP_RUNS} unrecorded jobs before {@code RUNS_PER_COMBINATION} measured ones, and
+ * {@code processed_record} (with {@code record_fingerprint}) is truncated before every run so each one inserts the
+ * full dataset.
+ * <p>
+ * Results are written to {@code RESULTS_FILE} in the {@code run_benchmarks.sh} schema, followed by the writer
+ * strategy, records written, records/s, p50/p95 chunk latency and peak heap, and the time all threads together spent
+ * waiting for pooled connections and executing SQL, with the share of the two that was waiting.
+ */
+public class LocalBenchmarkRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalBenchmarkRunner.class);
+
+    static final String HEADER = "run_id,platform,dataset_path,chunk_size,grid_size,retry_attempts,start_time,end_time,"
+            + "duration_seconds,status,writer_strategy,records,records_per_second,chunk_p50_ms,chunk_p95_ms,peak_heap_mb,"
+            + "pool_wait_seconds,sql_seconds,pool_wait_share";
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final Map<String, String> env;
+    private int iteration = 1;
+
+    public LocalBenchmarkRunner(Map<String, String> env) {
+        this.env = env;
+    }
+
+    /**
+     * Runs the whole matrix and returns the process exit code: {@code 0} when every measured run completed.
+     */
+    public int run() throws IOException {
+        Path resultsFile = Paths.get(env.getOrDefault("RESULTS_FILE", "benchmark-results.csv"));
+        int warmupRuns = Integer.parseInt(env.getOrDefault("WARMUP_RUNS", "1"));
+        int measuredRuns = Integer.parseInt(env.getOrDefault("RUNS_PER_COMBINATION", "1"));
+        boolean failed = false;
+
+        try (PrintWriter results = new PrintWriter(Files.newBufferedWriter(resultsFile))) {
+            results.println(HEADER);
+            results.flush();
+            for (String dataset : list("PAYLOAD_FILES", "data/sample-10k.csv")) {
+                for (String chunk : list("CHUNK_SIZES", "100")) {
+                    for (String grid : list("GRID_SIZES", "4")) {
+                        for (String retry : list("RETRY_ATTEMPTS", "3")) {
+                            for (String strategy : list("WRITER_STRATEGIES", "batch")) {
+                                Cell cell = new Cell(dataset, chunk, grid, retry, strategy);
+                                failed |= !runCell(cell, warmupRuns, measuredRuns, results);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        log.info("Benchmark matrix complete. Results written to {}", resultsFile.toAbsolutePath());
+        return failed ? 1 : 0;
+    }
+
+    private boolean runCell(Cell cell, int warmupRuns, int measuredRuns, PrintWriter results) {
+        log.info("Benchmarking dataset={} chunk={} grid={} retry={} writer={}",
+                cell.dataset(), cell.chunkSize(), cell.gridSize(), cell.retryAttempts(), cell.writerStrategy());
+        boolean completed = true;
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBatchBenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--chunk.size=" + cell.chunkSize(),
+                        "--partition.grid=" + cell.gridSize(),
+                        "--retry.maxAttempts=" + cell.retryAttempts(),
+                        "--writer.strategy=" + cell.writerStrategy(),
+                        // The job is launched below; don't let the auto-launching runners start it or exit the JVM
+                        "--spring.batch.job.enabled=false")) {
+
+            JobLauncher jobLauncher = context.getBean(JobLauncher.class);
+            Job job = context.getBean("probeJob", Job.class);
+            ChunkMetricsListener chunkMetrics = context.getBean(ChunkMetricsListener.class);
+            PartitionAwareDataSource dataSource = context.getBean(PartitionAwareDataSource.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            for (int i = 1; i <= warmupRuns; i++) {
+                log.info("Warmup run {}/{}", i, warmupRuns);
+                launch(jobLauncher, job, jdbcTemplate, cell.dataset());
+            }
+
+            for (int i = 1; i <= measuredRuns; i++) {
+                chunkMetrics.resetRunStatistics();
+                dataSource.resetRunStatistics();
+                resetPeakHeap();
+                String runId = RUN_ID.format(Instant.now()) + "-" + iteration++;
+
+                JobExecution execution = launch(jobLauncher, job, jdbcTemplate, cell.dataset());
+                long peakHeap = peakHeapBytes();
+
+                Instant start = toInstant(execution.getStartTime());
+                Instant end = toInstant(execution.getEndTime());
+                Duration duration = Duration.between(start, end);
+                long records = execution.getStepExecutions().stream()
+                        .filter(step -> !step.getStepName().equals("masterStep"))
+                        .mapToLong(StepExecution::getWriteCount)
+                        .sum();
+                double seconds = duration.toNanos() / 1e9;
+                HistogramSnapshot chunks = chunkMetrics.runSnapshot();
+                double poolWaitSeconds = dataSource.runAcquireNanos() / 1e9;
+                double sqlSeconds = dataSource.runStatementNanos() / 1e9;
+                double dbSeconds = poolWaitSeconds + sqlSeconds;
+                double poolWaitShare = dbSeconds > 0 ? poolWaitSeconds / dbSeconds : 0;
+                boolean success = execution.getStatus() == BatchStatus.COMPLETED;
+                completed &= success;
+
+                results.println(String.join(",",
+                        runId,
+                        "local",
+                        cell.dataset(),
+                        cell.chunkSize(),
+                        cell.gridSize(),
+                        cell.retryAttempts(),
+                        TIMESTAMP.format(start),
+                        TIMESTAMP.format(end),
+                        format(seconds),
+                        success ? "success" : "failed",
+                        cell.writerStrategy(),
+                        Long.toString(records),
+                        format(seconds > 0 ? records / seconds : 0),
+                        format(percentileMillis(chunks, 0.5)),
+                        format(percentileMillis(chunks, 0.95)),
+                        format(peakHeap / (1024.0 * 1024.0)),
+                        format(poolWaitSeconds),
+                        format(sqlSeconds),
+                        format(poolWaitShare)));
+                results.flush();
+                log.info("Run {} {} in {}s ({} records/s, {}s waiting for connections, {}s in SQL)", runId,
+                        execution.getStatus(), format(seconds), format(seconds > 0 ? records / seconds : 0),
+                        format(poolWaitSeconds), format(sqlSeconds));
+            }
+        } catch (Exception e) {
+            log.error("Benchmark cell failed: {}", cell, e);
+            return false;
+        }
+        return completed;
+    }
+
+    private static JobExecution launch(JobLauncher jobLauncher, Job job, JdbcTemplate jdbcTemplate, String dataset)
+            throws Exception {
+        jdbcTemplate.execute("TRUNCATE processed_record, record_fingerprint");
+        return jobLauncher.run(job, new JobParametersBuilder()
+                .addString("inputFile", dataset)
+                .addLong("timestamp", System.currentTimeMillis())
+                .toJobParameters());
+    }
+
+    private List<String> list(String name, String defaultValue) {
+        String value = env.getOrDefault(name, defaultValue).trim();
+        return Arrays.stream((value.isEmpty() ? defaultValue : value).split("\\s+")).toList();
+    }
+
+    private static double percentileMillis(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Sum of each heap pool's peak since the last reset; pools peak at different moments, so this is an upper bound.
+     */
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static Instant toInstant(LocalDateTime time) {
+        return time == null ? Instant.now() : time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private record Cell(String dataset, String chunkSize, String gridSize, String retryAttempts, String writerStrategy) {
+    }
+}
@@ -0,0 +1,224 @@
+package com.mayank.batch.step;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Commit interval of {@code slaveStep} when {@code chunk.adaptive.mode} is set, adjusted after every chunk within
+ * {@code [chunk.adaptive.min, chunk.adaptive.max]}, starting from {@code chunk.size}:
+ * <ul>
+ *     <li>{@code latency} - grows by {@code chunk.adaptive.increment} items while a chunk, commit included, takes
+ *     less than {@code chunk.adaptive.targetMillis}, and is multiplied by {@code chunk.adaptive.decrease} once it
+ *     takes longer.</li>
+ *     <li>{@code throughput} - grows by {@code chunk.adaptive.increment} items while records written per second
+ *     keep up with the previous chunk (within 5%), and is multiplied by {@code chunk.adaptive.decrease} when they
+ *     drop.</li>
+ * </ul>
+ * A chunk that fails (e.g. a deadlock being retried) always decreases the size. Each partition adapts on its own,
+ * keyed by step execution. Decisions are counted in {@code batch.chunk.size.adjustments} (tagged {@code action})
+ * and the resulting sizes recorded in the {@code batch.chunk.size} distribution.
+ * <p>
+ * Registered on the step both as its completion policy and as a chunk and step listener, which provide the timing.
+ */
+@Component
+public class AdaptiveChunkSizePolicy implements CompletionPolicy, ChunkListener, StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveChunkSizePolicy.class);
+
+    private static final double THROUGHPUT_TOLERANCE = 0.05;
+
+    @Value("${chunk.size:100}")
+    private int initialSize;
+
+    @Value("${chunk.adaptive.mode:off}")
+    private String mode;
+
+    @Value("${chunk.adaptive.min:10}")
+    private int minSize;
+
+    @Value("${chunk.adaptive.max:10000}")
+    private int maxSize;
+
+    @Value("${chunk.adaptive.targetMillis:500}")
+    private long targetMillis;
+
+    @Value("${chunk.adaptive.increment:50}")
+    private int increment;
+
+    @Value("${chunk.adaptive.decrease:0.5}")
+    private double decrease;
+
+    private final Map<Long, PartitionState> states = new ConcurrentHashMap<>();
+    private final DistributionSummary sizeSummary;
+    private final Counter increaseCounter;
+    private final Counter decreaseCounter;
+    private final Counter holdCounter;
+
+    public AdaptiveChunkSizePolicy(MeterRegistry registry) {
+        this.sizeSummary = DistributionSummary.builder("batch.chunk.size")
+                .description("Commit interval chosen by the adaptive chunk size policy")
+                .register(registry);
+        this.increaseCounter = adjustments(registry, "increase");
+        this.decreaseCounter = adjustments(registry, "decrease");
+        this.holdCounter = adjustments(registry, "hold");
+    }
+
+    public boolean isEnabled() {
+        return "latency".equalsIgnoreCase(mode) || "throughput".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Smallest commit interval the policy will choose.
+     */
+    public int getMinSize() {
+        return Math.max(1, minSize);
+    }
+
+    @Override
+    public void beforeStep(@NonNull StepExecution stepExecution) {
+        states.put(stepExecution.getId(), new PartitionState(clamp(initialSize)));
+    }
+
+    @Override
+    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+        PartitionState state = states.remove(stepExecution.getId());
+        if (state != null) {
+            log.debug("Partition {} finished with a commit interval of {}",
+                    stepExecution.getExecutionContext().getString("partitionId", "main"), state.size);
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    @Override
+    public void beforeChunk(@NonNull ChunkContext context) {
+        PartitionState state = state(context.getStepContext());
+        state.chunkStart = System.nanoTime();
+        state.writeCountBefore = context.getStepContext().getStepExecution().getWriteCount();
+    }
+
+    @Override
+    public void afterChunk(@NonNull ChunkContext context) {
+        PartitionState state = state(context.getStepContext());
+        long nanos = System.nanoTime() - state.chunkStart;
+        long written = context.getStepContext().getStepExecution().getWriteCount() - state.writeCountBefore;
+        if (written <= 0 || nanos <= 0) {
+            return;
+        }
+        if ("latency".equalsIgnoreCase(mode)) {
+            adjust(state, nanos / 1_000_000 <= targetMillis);
+        } else {
+            double rate = written * 1e9 / nanos;
+            // The last chunk of a partition is usually short, so only full chunks are compared
+            if (written >= state.size) {
+                adjust(state, rate >= state.lastRate * (1 - THROUGHPUT_TOLERANCE));
+                state.lastRate = rate;
+            } else {
+                holdCounter.increment();
+            }
+        }
+    }
+
+    @Override
+    public void afterChunkError(@NonNull ChunkContext context) {
+        adjust(state(context.getStepContext()), false);
+    }
+
+    @Override
+    public boolean isComplete(@NonNull RepeatContext context, RepeatStatus result) {
+        return result == null || !result.isContinuable() || isComplete(context);
+    }
+
+    @Override
+    public boolean isComplete(@NonNull RepeatContext context) {
+        ChunkCount count = (ChunkCount) context;
+        return count.items >= count.size;
+    }
+
+    @NonNull
+    @Override
+    public RepeatContext start(@NonNull RepeatContext parent) {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        return new ChunkCount(parent, stepContext == null ? clamp(initialSize) : state(stepContext).size);
+    }
+
+    @Override
+    public void update(@NonNull RepeatContext context) {
+        ((ChunkCount) context).items++;
+    }
+
+    private void adjust(PartitionState state, boolean grow) {
+        int next = grow
+                ? clamp(state.size + Math.max(1, increment))
+                : clamp((int) (state.size * Math.min(0.95, Math.max(0.05, decrease))));
+        if (next > state.size) {
+            increaseCounter.increment();
+        } else if (next < state.size) {
+            decreaseCounter.increment();
+        } else {
+            holdCounter.increment();
+        }
+        state.size = next;
+        sizeSummary.record(next);
+    }
+
+    private PartitionState state(StepContext stepContext) {
+        return states.computeIfAbsent(stepContext.getStepExecution().getId(),
+                id -> new PartitionState(clamp(initialSize)));
+    }
+
+    private int clamp(int size) {
+        int min = getMinSize();
+        return Math.max(min, Math.min(Math.max(min, maxSize), size));
+    }
+
+    private static Counter adjustments(MeterRegistry registry, String action) {
+        return Counter.builder("batch.chunk.size.adjustments")
+                .description("Commit interval decisions of the adaptive chunk size policy")
+                .tag("action", action)
+                .register(registry);
+    }
+
+    private static final class PartitionState {
+        private volatile int size;
+        private long chunkStart;
+        private long writeCountBefore;
+        private double lastRate;
+
+        private PartitionState(int size) {
+            this.size = size;
+        }
+    }
+
+    /**
+     * Items read in the current chunk against the size the partition had when the chunk started.
+     */
+    private static final class ChunkCount extends RepeatContextSupport {
+        private final int size;
+        private int items;
+
+        private ChunkCount(RepeatContext parent, int size) {
+            super(parent);
+            this.size = size;
+        }
+    }
+}
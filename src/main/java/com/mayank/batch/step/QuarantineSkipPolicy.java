@@ -0,0 +1,55 @@
+package com.mayank.batch.step;
+
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.item.ParseException;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+/**
+ * Skips items that are bad in themselves, so that they can be quarantined instead of failing the chunk:
+ * <ul>
+ *     <li>validation failures ({@link ValidationException});</li>
+ *     <li>lines the reader cannot parse ({@link ParseException});</li>
+ *     <li>rows the database rejects as data errors: SQL state classes {@code 22} (e.g. invalid JSON) and
+ *     {@code 23} (constraint violations).</li>
+ * </ul>
+ * Anything else, transient or not, is not skipped, so a misconfigured database still fails the step instead of
+ * quarantining every row. More than {@code skipLimit} skips per partition fail the step ({@code 0} = no limit).
+ */
+public class QuarantineSkipPolicy implements SkipPolicy {
+
+    private final long skipLimit;
+
+    public QuarantineSkipPolicy(long skipLimit) {
+        this.skipLimit = skipLimit;
+    }
+
+    @Override
+    public boolean shouldSkip(Throwable t, long skipCount) throws SkipLimitExceededException {
+        if (!isBadItem(t)) {
+            return false;
+        }
+        if (skipLimit > 0 && skipCount >= skipLimit) {
+            throw new SkipLimitExceededException(skipLimit, t);
+        }
+        return true;
+    }
+
+    private static boolean isBadItem(Throwable throwable) {
+        if (throwable instanceof ValidationException || throwable instanceof ParseException) {
+            return true;
+        }
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null) {
+                return sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23");
+            }
+        }
+        return false;
+    }
+}
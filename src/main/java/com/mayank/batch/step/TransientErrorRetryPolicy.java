@@ -0,0 +1,47 @@
+package com.mayank.batch.step;
+
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+
+/**
+ * Retries a chunk up to {@code maxAttempts} times, but only for failures that may succeed on a second attempt:
+ * deadlocks, serialization failures, lock timeouts, lost connections and server resource limits. The writers wrap
+ * driver exceptions, so the whole cause chain is inspected.
+ */
+public class TransientErrorRetryPolicy extends SimpleRetryPolicy {
+
+    public TransientErrorRetryPolicy(int maxAttempts) {
+        super(maxAttempts);
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        Throwable last = context.getLastThrowable();
+        return (last == null || isTransient(last)) && context.getRetryCount() < getMaxAttempts();
+    }
+
+    /**
+     * SQL states of class {@code 40} (transaction rollback, e.g. {@code 40P01} deadlock), {@code 08} (connection),
+     * {@code 53} (insufficient resources), {@code 57P} (operator intervention) and {@code 55P03} (lock not available).
+     */
+    public static boolean isTransient(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException
+                    || cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null) {
+                String state = sql.getSQLState();
+                return state.startsWith("40") || state.startsWith("08") || state.startsWith("53")
+                        || state.startsWith("57P") || state.equals("55P03");
+            }
+        }
+        return false;
+    }
+}
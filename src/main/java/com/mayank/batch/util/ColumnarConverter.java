@@ -0,0 +1,52 @@
+package com.mayank.batch.util;
+
+import com.mayank.batch.model.Record;
+import com.mayank.batch.reader.ColumnarFileWriter;
+import com.mayank.batch.reader.CsvPartitionItemReader;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * One-time conversion of an {@code id,payload,createdAt} CSV into the columnar format read by
+ * {@code ColumnarPartitionItemReader}, so repeated benchmark runs over the same dataset skip CSV parsing.
+ */
+public final class ColumnarConverter {
+
+    private ColumnarConverter() {
+    }
+
+    /**
+     * Converts {@code input} to {@code output} with row groups of {@code rowGroupSize} rows and returns the number
+     * of rows written. The CSV is parsed by {@link CsvPartitionItemReader}, so ids and timestamps that the CSV
+     * reader maps to {@code null} stay {@code null}.
+     */
+    public static long convert(Path input, Path output, int rowGroupSize) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        CsvPartitionItemReader reader = new CsvPartitionItemReader(new FileSystemResource(input), 0, Files.size(input));
+        reader.open(new ExecutionContext());
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(output, rowGroupSize)) {
+            Record record;
+            while ((record = reader.read()) != null) {
+                writer.write(record);
+            }
+            return writer.getRowCount();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * {@code data/sample-10k.csv} becomes {@code data/sample-10k.col}.
+     */
+    public static Path defaultOutput(Path input) {
+        String name = input.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return input.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".col");
+    }
+}
@@ -1,58 +1,330 @@
 package com.mayank.batch.util;
 
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.stereotype.Component;
-
-import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.util.Random;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates {@code id,payload,createdAt} CSV datasets in parallel.
+ * <p>
+ * The row range is cut into shards of {@link Options#shardRows()} rows, each generated from its own seed derived
+ * from {@link Options#seed()}, so the output is byte-for-byte the same whatever the thread count. Lines are built
+ * straight into a byte buffer per shard; a shard takes its file offset from the end of the previous shard and is
+ * written with positional {@link FileChannel} writes, so shards are written concurrently into one file.
+ * <p>
+ * Payloads keep the {@code {"value": n, "category": "CAT_n", "active": b}} schema. Options add out-of-order or
+ * sparse ids and skewed payload sizes (a Pareto-distributed {@code padding} field) for more realistic
+ * distributions. Timestamps fall in the year before {@link #ANCHOR_DAY}, with microsecond precision.
+ */
+public final class DataGenerator {
+
+    private static final LocalDate ANCHOR_DAY = LocalDate.of(2025, 11, 7);
+    private static final int DAYS = 365;
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+    private static final double PARETO_ALPHA = 1.16;
+    private static final int MIN_PADDING = 16;
+
+    private static final byte[] VALUE = "\"{\"\"value\"\": ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CATEGORY = ", \"\"category\"\": \"\"CAT_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ACTIVE = "\"\", \"\"active\"\": ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PADDING = ", \"\"padding\"\": \"\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    // "yyyy-MM-ddT" for each day of the range, oldest first
+    private static final byte[][] DAY_PREFIXES = new byte[DAYS][];
 
-@Component
-public class DataGenerator implements CommandLineRunner {
+    static {
+        for (int i = 0; i < DAYS; i++) {
+            DAY_PREFIXES[i] = (ANCHOR_DAY.minusDays(DAYS - 1 - i) + "T").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    public enum IdOrder {
+        /** 1..count in file order. */
+        SEQUENTIAL,
+        /** Increasing, one id at a hashed position in each block of {@code idGap} ids. */
+        SPARSE,
+        /** A fixed permutation of 1..count. */
+        SHUFFLED
+    }
 
-    @Override
-    public void run(String... args) throws Exception {
-        if (args.length > 0 && args[0].equals("generate-data")) {
-            int recordCount = Integer.parseInt(args[1]);
-            String filename = "data/" + recordCount + ".csv";
+    /**
+     * @param idGap           block size for {@link IdOrder#SPARSE} ids (about {@code 1/idGap} of the id range used)
+     * @param skewed          adds a {@code padding} field whose length is Pareto distributed (most rows small,
+     *                        a few up to {@code maxPaddingBytes})
+     */
+    public record Options(long count, Path output, long seed, int threads, int shardRows, IdOrder ids, int idGap,
+                          boolean skewed, int maxPaddingBytes) {
 
-            Path dataDir = Paths.get("data");
-            if (!Files.exists(dataDir)) {
-                Files.createDirectories(dataDir);
+        public Options {
+            threads = Math.max(1, threads);
+            shardRows = Math.max(1, shardRows);
+            idGap = Math.max(1, idGap);
+            maxPaddingBytes = Math.max(MIN_PADDING, maxPaddingBytes);
+        }
+
+        /**
+         * Parses {@code <count> [--output=path] [--seed=n] [--threads=n] [--shard-rows=n]
+         * [--ids=sequential|sparse|shuffled] [--id-gap=n] [--payload=uniform|skewed] [--max-padding-bytes=n]}.
+         * The output defaults to {@code data/<count>.csv}, the thread count to the number of cores.
+         */
+        public static Options parse(List<String> args) {
+            long count = args.isEmpty() ? 10000 : Long.parseLong(args.get(0));
+            Path output = Paths.get("data", count + ".csv");
+            long seed = 42L;
+            int threads = Runtime.getRuntime().availableProcessors();
+            int shardRows = 64 * 1024;
+            IdOrder ids = IdOrder.SEQUENTIAL;
+            int idGap = 10;
+            boolean skewed = false;
+            int maxPaddingBytes = 4096;
+            for (String arg : args.subList(Math.min(1, args.size()), args.size())) {
+                String[] pair = arg.split("=", 2);
+                String value = pair.length > 1 ? pair[1] : "";
+                switch (pair[0]) {
+                    case "--output" -> output = Paths.get(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--shard-rows" -> shardRows = Integer.parseInt(value);
+                    case "--ids" -> ids = IdOrder.valueOf(value.toUpperCase());
+                    case "--id-gap" -> idGap = Integer.parseInt(value);
+                    case "--payload" -> skewed = "skewed".equalsIgnoreCase(value);
+                    case "--max-padding-bytes" -> maxPaddingBytes = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + arg);
+                }
             }
+            return new Options(count, output, seed, threads, shardRows, ids, idGap, skewed, maxPaddingBytes);
+        }
+    }
+
+    private DataGenerator() {
+    }
 
-            generateCsvFile(recordCount, filename);
-            System.out.println("Generated " + recordCount + " records in " + filename);
-            System.exit(0);
+    /**
+     * Writes {@code options.count()} rows to {@code options.output()} and returns the file size in bytes.
+     */
+    public static long generate(Options options) throws IOException {
+        Path output = options.output();
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        long shards = (options.count() + options.shardRows() - 1) / options.shardRows();
+        long permutationStep = options.ids() == IdOrder.SHUFFLED ? permutationStep(options.count()) : 1L;
+
+        ExecutorService executor = Executors.newFixedThreadPool(options.threads());
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            AtomicLong written = new AtomicLong();
+            List<Future<?>> tasks = new ArrayList<>();
+            // Each shard's start offset is the end offset of the shard before it
+            CompletableFuture<Long> previousEnd = CompletableFuture.completedFuture(0L);
+            for (long shard = 0; shard < shards; shard++) {
+                CompletableFuture<Long> start = previousEnd;
+                CompletableFuture<Long> end = new CompletableFuture<>();
+                long shardIndex = shard;
+                tasks.add(executor.submit(() -> {
+                    ByteBuffer buffer = generateShard(options, shardIndex, permutationStep);
+                    long offset = start.join();
+                    end.complete(offset + buffer.remaining());
+                    while (buffer.hasRemaining()) {
+                        offset += channel.write(buffer, offset);
+                    }
+                    long rows = written.addAndGet(Math.min(options.shardRows(),
+                            options.count() - shardIndex * options.shardRows()));
+                    if ((shardIndex + 1) % 16 == 0) {
+                        System.out.printf("Generated %d records...%n", rows);
+                    }
+                    return null;
+                }));
+                previousEnd = end;
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            return previousEnd.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating " + output, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to generate " + output, e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
     }
 
-    private void generateCsvFile(int recordCount, String filename) throws Exception {
-        Random random = new Random(42); // Fixed seed for reproducibility
+    private static ByteBuffer generateShard(Options options, long shard, long permutationStep) {
+        long firstRow = shard * options.shardRows();
+        int rows = (int) Math.min(options.shardRows(), options.count() - firstRow);
+        SplittableRandom random = new SplittableRandom(mix(options.seed() ^ mix(shard + 1)));
+        LineBuffer line = new LineBuffer(rows * (options.skewed() ? 160 : 96));
+
+        for (int i = 0; i < rows; i++) {
+            long row = firstRow + i;
+            line.putLong(id(options, row, permutationStep));
+            line.put((byte) ',');
+
+            line.put(VALUE).putLong(random.nextInt(1000));
+            line.put(CATEGORY).putLong(random.nextInt(10));
+            line.put(ACTIVE).put(random.nextBoolean() ? TRUE : FALSE);
+            if (options.skewed()) {
+                line.put(PADDING).putRepeated((byte) 'x', paddingLength(random, options.maxPaddingBytes()));
+                line.put((byte) '"').put((byte) '"');
+            }
+            line.put((byte) '}').put((byte) '"').put((byte) ',');
 
-        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filename))) {
-            for (int i = 1; i <= recordCount; i++) {
-                String payload = String.format("{\"value\": %d, \"category\": \"%s\", \"active\": %b}",
-                        random.nextInt(1000),
-                        "CAT_" + random.nextInt(10),
-                        random.nextBoolean()
-                );
+            int day = random.nextInt(DAYS);
+            long microOfDay = random.nextLong(MICROS_PER_DAY);
+            line.put(DAY_PREFIXES[day]);
+            long seconds = microOfDay / 1_000_000;
+            line.putDigits(seconds / 3600, 2).put((byte) ':')
+                    .putDigits(seconds / 60 % 60, 2).put((byte) ':')
+                    .putDigits(seconds % 60, 2).put((byte) '.')
+                    .putDigits(microOfDay % 1_000_000, 6);
+            line.put((byte) '\n');
+        }
+        return line.flip();
+    }
 
-                LocalDateTime timestamp = LocalDateTime.now().minusDays(random.nextInt(365));
+    /**
+     * Id of the row at zero-based position {@code row}: deterministic and unique in every mode.
+     */
+    private static long id(Options options, long row, long permutationStep) {
+        return switch (options.ids()) {
+            case SEQUENTIAL -> row + 1;
+            // One id per slot of idGap ids, at a hashed position inside the slot
+            case SPARSE -> row * options.idGap() + Math.floorMod(mix(options.seed() + row), options.idGap()) + 1;
+            // Affine permutation of [0, count): step is coprime with count
+            case SHUFFLED -> (mulMod(row, permutationStep, options.count())
+                    + Math.floorMod(options.seed(), options.count())) % options.count() + 1;
+        };
+    }
 
-                writer.write(String.format("%d,\"%s\",%s\n",
-                        i,
-                        payload.replace("\"", "\"\""), // Escape quotes for CSV
-                        timestamp.toString()
-                ));
+    private static long permutationStep(long count) {
+        // Roughly count / golden ratio, so neighbouring rows land far apart
+        long step = Math.max(1L, (long) (count * 0.6180339887498949)) | 1L;
+        while (gcd(step, count) != 1L) {
+            step += 2;
+        }
+        return step % Math.max(1L, count);
+    }
 
-                // Progress indicator
-                if (i % 10000 == 0) {
-                    System.out.println("Generated " + i + " records...");
-                }
+    private static long mulMod(long a, long b, long m) {
+        long product = a * b;
+        if (Math.multiplyHigh(a, b) == 0 && product >= 0) {
+            return product % m;
+        }
+        return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).mod(BigInteger.valueOf(m)).longValue();
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Pareto-distributed length between {@value #MIN_PADDING} and {@code max}: about 80% of rows stay near the
+     * minimum and a long tail reaches the maximum.
+     */
+    private static int paddingLength(SplittableRandom random, int max) {
+        double u = 1.0 - random.nextDouble();
+        return (int) Math.min(max, MIN_PADDING / Math.pow(u, 1.0 / PARETO_ALPHA));
+    }
+
+    /**
+     * SplitMix64 finalizer, used to derive independent seeds and hashes.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Growable byte buffer with ASCII number formatting, so no per-row strings are created.
+     */
+    private static final class LineBuffer {
+
+        private byte[] bytes;
+        private int length;
+
+        private LineBuffer(int capacity) {
+            this.bytes = new byte[Math.max(capacity, 64)];
+        }
+
+        private LineBuffer put(byte b) {
+            ensure(1);
+            bytes[length++] = b;
+            return this;
+        }
+
+        private LineBuffer put(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, bytes, length, b.length);
+            length += b.length;
+            return this;
+        }
+
+        private LineBuffer putRepeated(byte b, int count) {
+            ensure(count);
+            Arrays.fill(bytes, length, length + count, b);
+            length += count;
+            return this;
+        }
+
+        private LineBuffer putLong(long value) {
+            ensure(20);
+            if (value < 0) {
+                bytes[length++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long v = value; v >= 10; v /= 10) {
+                digits++;
+            }
+            return putDigits(value, digits);
+        }
+
+        /**
+         * Writes the last {@code digits} decimal digits of a non-negative value, zero-padded.
+         */
+        private LineBuffer putDigits(long value, int digits) {
+            ensure(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+            return this;
+        }
+
+        private ByteBuffer flip() {
+            return ByteBuffer.wrap(bytes, 0, length);
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
             }
         }
     }
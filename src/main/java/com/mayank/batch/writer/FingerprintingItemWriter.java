@@ -0,0 +1,58 @@
+package com.mayank.batch.writer;
+
+import com.mayank.batch.model.Record;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes each chunk through the delegate, then records the fingerprints that {@code FingerprintFilteringItemReader}
+ * attached to its records in {@code record_fingerprint}, with one statement in the same transaction: a fingerprint
+ * is only kept once the row it describes is committed, and a rolled back chunk is compared afresh when retried.
+ * <p>
+ * Rows are upserted in ascending id order, keeping the last fingerprint of a repeated id, since one statement cannot
+ * update the same row twice.
+ */
+public class FingerprintingItemWriter implements ItemWriter<Record> {
+
+    private static final String UPSERT_SQL = "INSERT INTO record_fingerprint (id, fingerprint) " +
+            "SELECT * FROM unnest(?::bigint[], ?::bigint[]) " +
+            "ON CONFLICT (id) DO UPDATE SET fingerprint = EXCLUDED.fingerprint";
+
+    private final ItemWriter<Record> delegate;
+    private final JdbcTemplate jdbcTemplate;
+
+    public FingerprintingItemWriter(ItemWriter<Record> delegate, DataSource dataSource) {
+        this.delegate = delegate;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends Record> chunk) throws Exception {
+        delegate.write(chunk);
+
+        Map<Long, Long> latest = new TreeMap<>();
+        for (Record record : chunk) {
+            if (record.getId() != null && record.getFingerprint() != null) {
+                latest.put(record.getId(), record.getFingerprint());
+            }
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+        Long[] ids = latest.keySet().toArray(new Long[0]);
+        Long[] fingerprints = latest.values().toArray(new Long[0]);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            ps.setArray(2, connection.createArrayOf("bigint", fingerprints));
+            return ps;
+        });
+    }
+}
@@ -0,0 +1,181 @@
+package com.mayank.batch.writer;
+
+import com.mayank.batch.model.Record;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Bulk writer that streams each chunk into a temporary staging table with {@code COPY ... FROM STDIN} (text format)
+ * and then merges it into {@code processed_record} with a single set-based {@code INSERT ... SELECT ... ON CONFLICT}.
+ * <p>
+ * The staging table is {@code ON COMMIT DELETE ROWS} and private to the connection's session, so concurrent
+ * partitions never share one, nothing outlives the connection, and no chunk takes a lock other sessions can see.
+ * The COPY and merge run on the chunk's transactional connection, so a failed chunk leaves neither staged nor merged
+ * rows behind; outside a transaction the COPY would commit, and empty the table, before the merge. Duplicate ids
+ * within a chunk keep the last occurrence, matching the row-by-row upsert of {@link PostgresItemWriter}.
+ */
+@Component
+public class PostgresCopyItemWriter implements ItemWriter<Record> {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresCopyItemWriter.class);
+
+    private static final String STAGING_TABLE = "processed_record_stage";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresCopyItemWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends Record> items) {
+        if (items.isEmpty()) {
+            log.debug("No items to write");
+            return;
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            log.debug("Copying batch of size {} into {}", items.size(), STAGING_TABLE);
+
+            // Once per session; the rows are emptied by every commit, and a rollback discards them
+            jdbcTemplate.execute("""
+                    CREATE TEMP TABLE IF NOT EXISTS %s (
+                        seq INT NOT NULL,
+                        id BIGINT NOT NULL,
+                        payload JSONB
+                    ) ON COMMIT DELETE ROWS""".formatted(STAGING_TABLE));
+
+            copy(connection, items.getItems());
+
+            jdbcTemplate.update("""
+                    INSERT INTO processed_record (id, payload, processed_at, status)
+                    SELECT DISTINCT ON (id) id, payload, ?::timestamp, ?::varchar
+                    FROM %s
+                    ORDER BY id, seq DESC
+                    ON CONFLICT (id)
+                    DO UPDATE SET
+                        payload = EXCLUDED.payload,
+                        processed_at = EXCLUDED.processed_at,
+                        status = EXCLUDED.status
+                    """.formatted(STAGING_TABLE), Timestamp.from(Instant.now()), "PROCESSED");
+        } catch (Exception e) {
+            log.error("Failed to copy batch into processed_record: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to copy batch into processed_record", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void copy(Connection connection, List<? extends Record> records) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + STAGING_TABLE + " (seq, id, payload) FROM STDIN");
+        try {
+            CopyBuffer buffer = new CopyBuffer(copyIn);
+            for (int i = 0; i < records.size(); i++) {
+                Record record = records.get(i);
+                if (record.getId() == null) {
+                    throw new SQLException("Record id is null for item index " + i);
+                }
+                buffer.appendAscii(Integer.toString(i)).append('\t');
+                buffer.appendAscii(Long.toString(record.getId())).append('\t');
+                buffer.appendEscaped(record.getPayload()).append('\n');
+            }
+            buffer.flush();
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Encodes rows in the COPY text format and hands them to the server in {@value #COPY_BUFFER_SIZE}-byte blocks.
+     */
+    private static final class CopyBuffer {
+
+        private final CopyIn copyIn;
+        private final byte[] bytes = new byte[COPY_BUFFER_SIZE];
+        private int length;
+
+        private CopyBuffer(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        private CopyBuffer append(char c) throws SQLException {
+            if (length == bytes.length) {
+                flush();
+            }
+            bytes[length++] = (byte) c;
+            return this;
+        }
+
+        private CopyBuffer appendAscii(String value) throws SQLException {
+            for (int i = 0; i < value.length(); i++) {
+                append(value.charAt(i));
+            }
+            return this;
+        }
+
+        private CopyBuffer appendEscaped(String value) throws SQLException {
+            if (value == null) {
+                return appendAscii("\\N");
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> append('\\').append('\\');
+                    case '\n' -> append('\\').append('n');
+                    case '\r' -> append('\\').append('r');
+                    case '\t' -> append('\\').append('t');
+                    default -> {
+                        if (c < 0x80) {
+                            append(c);
+                        } else {
+                            int end = i + 1;
+                            while (end < value.length() && value.charAt(end) >= 0x80) {
+                                end++;
+                            }
+                            byte[] encoded = value.substring(i, end).getBytes(StandardCharsets.UTF_8);
+                            for (byte b : encoded) {
+                                if (length == bytes.length) {
+                                    flush();
+                                }
+                                bytes[length++] = b;
+                            }
+                            i = end - 1;
+                        }
+                    }
+                }
+            }
+            return this;
+        }
+
+        private void flush() throws SQLException {
+            if (length > 0) {
+                copyIn.writeToCopy(bytes, 0, length);
+                length = 0;
+            }
+        }
+    }
+}
@@ -5,10 +5,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.Chunk;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.lang.NonNull;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,27 +17,61 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.List;
 
+/**
+ * Upserts processed records into {@code processed_record}.
+ * <p>
+ * With {@code writer.strategy=batch} each record is a bound execution of a single-row upsert sent as one
+ * JDBC batch. With {@code writer.strategy=unnest} the chunk is bound as a {@code bigint[]} of ids and a
+ * {@code text[]} of payloads and written by one {@code INSERT ... SELECT FROM unnest(...)} statement per
+ * {@code writer.unnest.maxRows} records (the whole chunk when {@code 0}), which needs no DDL privileges.
+ * <p>
+ * Failures are rethrown wrapped in a {@link RuntimeException} and retried by {@code slaveStep}'s fault-tolerant
+ * retry policy.
+ */
 @Component
 public class PostgresItemWriter implements ItemWriter<Record> {
 
     private static final Logger log = LoggerFactory.getLogger(PostgresItemWriter.class);
 
+    private static final String UNNEST_SQL = """
+            INSERT INTO processed_record (id, payload, processed_at, status)
+            SELECT DISTINCT ON (t.id) t.id, t.payload::jsonb, ?::timestamp, ?::varchar
+            FROM unnest(?::bigint[], ?::text[]) WITH ORDINALITY AS t(id, payload, ord)
+            ORDER BY t.id, t.ord DESC
+            ON CONFLICT (id)
+            DO UPDATE SET
+                payload = EXCLUDED.payload,
+                processed_at = EXCLUDED.processed_at,
+                status = EXCLUDED.status
+            """;
+
     private final JdbcTemplate jdbcTemplate;
 
+    @Value("${writer.strategy:batch}")
+    private String strategy;
+
+    @Value("${writer.unnest.maxRows:0}")
+    private int unnestMaxRows;
+
     public PostgresItemWriter(DataSource dataSource) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
     }
 
     @Override
     @Transactional
-    @Retryable(retryFor = {SQLException.class})
     public void write(@NonNull Chunk<? extends Record> items) {
         if (items == null || items.isEmpty()) {
             log.debug("No items to write");
             return;
         }
 
+        if ("unnest".equalsIgnoreCase(strategy)) {
+            writeUnnest(items.getItems());
+            return;
+        }
+
         String sql = """
             INSERT INTO processed_record (id, payload, processed_at, status)
             VALUES (?, ?::jsonb, ?, ?)
@@ -75,4 +109,38 @@ public class PostgresItemWriter implements ItemWriter<Record> {
             throw new RuntimeException("Failed to write batch to processed_record", e);
         }
     }
+
+    private void writeUnnest(List<? extends Record> records) {
+        int rowsPerStatement = unnestMaxRows > 0 ? unnestMaxRows : records.size();
+        Timestamp processedAt = Timestamp.from(Instant.now());
+
+        try {
+            for (int from = 0; from < records.size(); from += rowsPerStatement) {
+                int to = Math.min(from + rowsPerStatement, records.size());
+                Long[] ids = new Long[to - from];
+                String[] payloads = new String[to - from];
+                for (int i = from; i < to; i++) {
+                    Record record = records.get(i);
+                    if (record.getId() == null) {
+                        throw new SQLException("Record id is null for item index " + i);
+                    }
+                    ids[i - from] = record.getId();
+                    payloads[i - from] = record.getPayload();
+                }
+                log.debug("Writing unnest batch of size {} to processed_record", ids.length);
+
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(UNNEST_SQL);
+                    ps.setTimestamp(1, processedAt);
+                    ps.setString(2, "PROCESSED");
+                    ps.setArray(3, connection.createArrayOf("bigint", ids));
+                    ps.setArray(4, connection.createArrayOf("text", payloads));
+                    return ps;
+                });
+            }
+        } catch (Exception e) {
+            log.error("Failed to write unnest batch to processed_record: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to write batch to processed_record", e);
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package com.mayank.batch.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"batch.metadata.mode=coalesced", "batch.metadata.coalesce.chunks=10",
+        "batch.metadata.coalesce.maxMillis=0", "chunk.size=100", "partition.grid=4"})
+public class CoalescedMetadataEndToEndJobTest extends EndToEndJobTestSupport {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void runJob_withCoalescedMetadata_skipsCheckpointsButRecordsFinalCounts() throws Exception {
+        // When
+        JobExecution execution = runJob(sampleFile());
+
+        // Then
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus(), "Job should complete successfully");
+        assertEquals(10000, processedRecords());
+        assertEquals(10000, jdbcTemplate.queryForObject(
+                "SELECT SUM(write_count) FROM batch_step_execution WHERE job_execution_id = ? AND step_name <> 'masterStep'",
+                Integer.class, execution.getId()), "Final step updates should always be written");
+        assertTrue(meterRegistry.get("batch.metadata.calls")
+                .tags("operation", "step.update", "outcome", "coalesced").counter().count() > 0,
+                "Chunk checkpoints should have been coalesced");
+        assertTrue(meterRegistry.get("batch.metadata.calls.per.chunk")
+                .tag("step", "slaveStep").summary().mean() < 1.0);
+    }
+}
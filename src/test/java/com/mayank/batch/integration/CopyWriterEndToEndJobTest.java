@@ -0,0 +1,13 @@
+package com.mayank.batch.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "writer.strategy=copy")
+public class CopyWriterEndToEndJobTest extends EndToEndJobTestSupport {
+
+    @Test
+    void runJob_withCopyWriter_writesSameRecordsAsBatchUpsert() throws Exception {
+        assertWritesSampleFileAndUpsertsOnRerun();
+    }
+}
@@ -0,0 +1,30 @@
+package com.mayank.batch.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.*;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"writer.sortById=true", "writer.indexMode=deferred"})
+public class DeferredIndexEndToEndJobTest extends EndToEndJobTestSupport {
+
+    @Test
+    void runJob_withDeferredIndexes_rebuildsSecondaryIndexesAfterLoad() throws Exception {
+        JobExecution execution = runJob(sampleFile());
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus(), "Job should complete successfully");
+        assertEquals(10000, processedRecords());
+
+        // Both secondary indexes were dropped for the load and are back, valid, once the job has finished
+        String indexes = execution.getExecutionContext().getString("deferredIndexes");
+        assertTrue(indexes.contains("idx_processed_record_status"));
+        assertTrue(indexes.contains("idx_processed_record_timestamp"));
+        Integer validIndexes = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM pg_index x JOIN pg_class c ON c.oid = x.indexrelid
+                WHERE x.indrelid = 'processed_record'::regclass AND x.indisvalid
+                  AND c.relname IN ('idx_processed_record_status', 'idx_processed_record_timestamp')
+                """, Integer.class);
+        assertEquals(2, validIndexes);
+    }
+}
@@ -0,0 +1,119 @@
+package com.mayank.batch.integration;
+
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Shared setup of the {@code *EndToEndJobTest}s that run {@code probeJob} under different properties.
+ * <p>
+ * One Postgres container is started for the whole test run. Every Spring context gets its own database in it, so
+ * each test class starts from an empty schema whichever classes ran before, and {@code spring.sql.init} can create
+ * the Spring Batch tables, which have no {@code IF NOT EXISTS}, again.
+ */
+public abstract class EndToEndJobTestSupport {
+
+    protected static final String SAMPLE_FILE = "data/sample-10k.csv";
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("batchdb")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    static {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        String database = createDatabase();
+        registry.add("spring.datasource.url", () -> "jdbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + database);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        // Ensure SQL initialization runs against Testcontainers Postgres during tests
+        registry.add("spring.sql.init.mode", () -> "always");
+        // Disable auto job launching; we'll run the job explicitly in the test
+        registry.add("spring.batch.job.enabled", () -> "false");
+    }
+
+    @Autowired
+    protected JobLauncher jobLauncher;
+
+    @Autowired
+    protected Job probeJob;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    protected static String sampleFile() throws IOException {
+        File projectFile = new File(SAMPLE_FILE);
+        return projectFile.exists()
+                ? projectFile.getAbsolutePath()
+                : new ClassPathResource(SAMPLE_FILE).getFile().getAbsolutePath();
+    }
+
+    protected JobExecution runJob(String inputFile) throws Exception {
+        return jobLauncher.run(probeJob, new JobParametersBuilder()
+                .addString("inputFile", inputFile)
+                .addLong("timestamp", System.nanoTime())
+                .toJobParameters());
+    }
+
+    protected int processedRecords() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processed_record", Integer.class);
+    }
+
+    /**
+     * Runs the job over {@link #SAMPLE_FILE} and checks that all 10,000 records are written and transformed, then
+     * runs it again and checks that the second run upserts rather than duplicates them.
+     */
+    protected void assertWritesSampleFileAndUpsertsOnRerun() throws Exception {
+        JobExecution execution = runJob(sampleFile());
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus(), "Job should complete successfully");
+        assertEquals(10000, processedRecords());
+        String payload = jdbcTemplate.queryForObject(
+                "SELECT payload->'original'->>'data' FROM processed_record WHERE id = 42", String.class);
+        assertEquals("payload-data-42", payload);
+        Integer processedFlags = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM processed_record WHERE status = 'PROCESSED' AND (payload->>'processed')::boolean",
+                Integer.class);
+        assertEquals(10000, processedFlags);
+
+        // Re-running over the same input must upsert, not duplicate
+        JobExecution rerun = runJob(sampleFile());
+        assertEquals(BatchStatus.COMPLETED, rerun.getStatus(), "Re-run should complete successfully");
+        assertEquals(10000, processedRecords());
+    }
+
+    private static String createDatabase() {
+        String database = "batchdb_" + databases.incrementAndGet();
+        try (Connection connection = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to create test database " + database, e);
+        }
+        return database;
+    }
+}
@@ -0,0 +1,45 @@
+package com.mayank.batch.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"incremental.enabled=true", "chunk.size=100", "partition.grid=4"})
+public class IncrementalEndToEndJobTest extends EndToEndJobTestSupport {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void runJobTwice_withIncremental_writesOnlyChangedRecords() throws Exception {
+        // Given a first run that writes every record and its fingerprint
+        JobExecution first = runJob(sampleFile());
+        assertEquals(BatchStatus.COMPLETED, first.getStatus(), "First run should complete successfully");
+        assertEquals(10000, processedRecords());
+        assertEquals(10000, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM record_fingerprint", Integer.class));
+        // One record looks changed to the second run
+        jdbcTemplate.update("UPDATE record_fingerprint SET fingerprint = 0 WHERE id = (SELECT MIN(id) FROM record_fingerprint)");
+        double unchangedBefore = count("unchanged");
+
+        // When
+        JobExecution second = runJob(sampleFile());
+
+        // Then only the changed record is written again
+        assertEquals(BatchStatus.COMPLETED, second.getStatus(), "Second run should complete successfully");
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT SUM(write_count) FROM batch_step_execution WHERE job_execution_id = ? AND step_name <> 'masterStep'",
+                Integer.class, second.getId()));
+        assertEquals(9999.0, count("unchanged") - unchangedBefore);
+        assertEquals(1.0, count("changed"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM record_fingerprint WHERE fingerprint = 0", Integer.class));
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("batch.incremental.records").tag("outcome", outcome).counter().count();
+    }
+}
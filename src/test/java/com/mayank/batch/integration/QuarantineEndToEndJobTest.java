@@ -0,0 +1,55 @@
+package com.mayank.batch.integration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.*;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"fault.mode=quarantine", "chunk.size=50"})
+public class QuarantineEndToEndJobTest extends EndToEndJobTestSupport {
+
+    @Test
+    void runJob_withDirtyInput_quarantinesBadRowsAndWritesTheRest(@TempDir Path tempDir) throws Exception {
+        // Given 1000 good rows and, spread among them, a malformed id, a malformed timestamp and invalid JSON
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            csv.append(i).append(",\"{\"\"value\"\": ").append(i).append("}\",2025-01-01T00:00:00\n");
+            if (i == 100) {
+                csv.append("abc,\"{\"\"value\"\": 0}\",2025-01-01T00:00:00\n");
+            } else if (i == 500) {
+                csv.append("5000,\"{\"\"value\"\": 5000}\",not-a-timestamp\n");
+            } else if (i == 900) {
+                csv.append("9000,\"{\"\"value\"\": }\",2025-01-01T00:00:00\n");
+            }
+        }
+        Path input = tempDir.resolve("dirty.csv");
+        Files.writeString(input, csv);
+
+        // When
+        JobExecution execution = runJob(input.toString());
+
+        // Then the job completes with every good row written and each bad row quarantined once
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus(), "Job should complete successfully");
+        assertEquals(1000, processedRecords());
+
+        List<Map<String, Object>> rejected = jdbcTemplate.queryForList(
+                "SELECT record_id, stage FROM rejected_record ORDER BY stage, record_id NULLS FIRST");
+        assertEquals(3, rejected.size());
+        assertNull(rejected.get(0).get("record_id"));
+        assertEquals("process", rejected.get(0).get("stage"));
+        assertEquals(5000L, ((Number) rejected.get(1).get("record_id")).longValue());
+        assertEquals("process", rejected.get(1).get("stage"));
+        assertEquals(9000L, ((Number) rejected.get(2).get("record_id")).longValue());
+        assertEquals("write", rejected.get(2).get("stage"));
+
+        long skips = execution.getStepExecutions().stream().mapToLong(StepExecution::getSkipCount).sum();
+        assertEquals(3, skips);
+    }
+}
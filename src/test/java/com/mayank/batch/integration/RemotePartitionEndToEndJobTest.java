@@ -0,0 +1,62 @@
+package com.mayank.batch.integration;
+
+import com.mayank.batch.partitioner.PartitionWorker;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The manager only coordinates ({@code partition.remote.threads=0}); two worker loops stand in for the other tasks,
+ * so every partition goes through {@code partition_work}. {@code tools/run-remote-partitions.sh} runs the same setup
+ * as separate JVMs.
+ */
+@SpringBootTest(properties = {"partition.remote.enabled=true", "partition.remote.threads=0", "partition.grid=6",
+        "partition.remote.pollMillis=100", "partition.remote.idleSeconds=5"})
+public class RemotePartitionEndToEndJobTest extends EndToEndJobTestSupport {
+
+    @Autowired
+    private PartitionWorker partitionWorker;
+
+    @Test
+    void runJob_withRemotePartitions_workersClaimEveryPartition() throws Exception {
+        // Given two workers waiting for partitions
+        List<CompletableFuture<Integer>> workers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            workers.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return partitionWorker.run();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+
+        // When
+        JobExecution execution = runJob(sampleFile());
+
+        // Then
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus(), "Job should complete successfully");
+        assertEquals(10000, processedRecords());
+        assertEquals(6, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM partition_work WHERE job_execution_id = ? AND status = 'DONE'",
+                Integer.class, execution.getId()));
+
+        StepExecution manager = execution.getStepExecutions().stream()
+                .filter(step -> step.getStepName().equals("masterStep"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(10000, manager.getWriteCount(), "Manager should aggregate the workers' counts");
+
+        for (CompletableFuture<Integer> worker : workers) {
+            assertEquals(0, worker.get(30, TimeUnit.SECONDS), "No partition should fail");
+        }
+    }
+}
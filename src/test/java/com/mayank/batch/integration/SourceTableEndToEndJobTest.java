@@ -0,0 +1,36 @@
+package com.mayank.batch.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.*;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"source.boundaries=percentile", "source.pageSize=128"})
+public class SourceTableEndToEndJobTest extends EndToEndJobTestSupport {
+
+    @Test
+    void runJob_withSourceTable_reprocessesEveryRow() throws Exception {
+        // Sparse ids: every third id, with a dense block at the top to skew equal-width ranges
+        jdbcTemplate.update("TRUNCATE source_record");
+        jdbcTemplate.update("""
+                INSERT INTO source_record (id, payload, created_at)
+                SELECT id, jsonb_build_object('data', 'payload-data-' || id), now()
+                FROM (SELECT g * 3 AS id FROM generate_series(1, 3000) g
+                      UNION ALL SELECT 100000 + g FROM generate_series(1, 2000) g) ids
+                """);
+
+        JobExecution execution = jobLauncher.run(probeJob, new JobParametersBuilder()
+                .addString("sourceTable", "source_record")
+                .addLong("timestamp", System.currentTimeMillis())
+                .toJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus(), "Job should complete successfully");
+
+        assertEquals(5000, processedRecords());
+        Integer unmatched = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM source_record s LEFT JOIN processed_record p ON p.id = s.id WHERE p.id IS NULL",
+                Integer.class);
+        assertEquals(0, unmatched, "Every source row should be written exactly once");
+    }
+}
@@ -0,0 +1,13 @@
+package com.mayank.batch.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {"writer.strategy=unnest", "writer.unnest.maxRows=64"})
+public class UnnestWriterEndToEndJobTest extends EndToEndJobTestSupport {
+
+    @Test
+    void runJob_withUnnestWriter_writesSameRecordsAsBatchUpsert() throws Exception {
+        assertWritesSampleFileAndUpsertsOnRerun();
+    }
+}
@@ -0,0 +1,113 @@
+package com.mayank.batch.jdbc;
+
+import com.mayank.batch.listener.PartitionSlotListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionAwareDataSourceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PartitionSlotListener partitionSlots = new PartitionSlotListener();
+    private int opened;
+    private int closed;
+    private final PartitionAwareDataSource dataSource = newDataSource();
+
+    @AfterEach
+    void tearDown() {
+        StepSynchronizationManager.close();
+    }
+
+    @Test
+    void testPinnedPartitionReusesOneConnectionUntilUnpinned() throws Exception {
+        // Given
+        StepExecution stepExecution = new StepExecution("slaveStep:partition1", new JobExecution(1L), 2L);
+        partitionSlots.beforeStep(stepExecution);
+        StepSynchronizationManager.register(stepExecution);
+        dataSource.pin();
+
+        // When two chunks use a connection in turn
+        for (int i = 0; i < 2; i++) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("UPDATE t SET x = 1")) {
+                statement.executeUpdate();
+            }
+        }
+
+        // Then
+        assertEquals(1, opened);
+        assertEquals(0, closed);
+        assertEquals(2, registry.get("batch.db.statement.duration").tag("slot", "0").timer().count());
+        assertEquals(1.0, registry.get("batch.db.connections.idle").tag("slot", "0").gauge().value());
+
+        dataSource.unpin();
+        assertEquals(1, closed);
+        assertEquals(1, registry.get("batch.db.connection.acquire").tag("slot", "0").timer().count());
+    }
+
+    @Test
+    void testUnpinnedConnectionsComeFromThePoolAndAreCounted() throws Exception {
+        // When
+        try (Connection outer = dataSource.getConnection()) {
+            try (Connection inner = dataSource.getConnection()) {
+                assertEquals(2.0, registry.get("batch.db.connections.active").tag("slot", "main").gauge().value());
+            }
+        }
+
+        // Then
+        assertEquals(2, opened);
+        assertEquals(2, closed);
+        assertEquals(2, registry.get("batch.db.connection.acquire").tag("slot", "main").timer().count());
+        assertTrue(dataSource.runAcquireNanos() > 0);
+        assertEquals(0L, dataSource.runStatementNanos());
+    }
+
+    private PartitionAwareDataSource newDataSource() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", registry);
+        beanFactory.registerSingleton("partitionSlotListener", partitionSlots);
+        return new PartitionAwareDataSource(fakeDataSource(), beanFactory.getBeanProvider(MeterRegistry.class),
+                beanFactory.getBeanProvider(PartitionSlotListener.class));
+    }
+
+    private DataSource fakeDataSource() {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("getConnection")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    opened++;
+                    return fakeConnection();
+                });
+    }
+
+    private Connection fakeConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed++;
+                        yield null;
+                    }
+                    case "isClosed" -> false;
+                    case "prepareStatement" -> Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[]{PreparedStatement.class},
+                            (statement, statementMethod, statementArgs) -> switch (statementMethod.getName()) {
+                                case "executeUpdate" -> 1;
+                                default -> null;
+                            });
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,55 @@
+package com.mayank.batch.listener;
+
+import com.mayank.batch.model.Record;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LifecycleMetricsListenerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LifecycleMetricsListener listener = new LifecycleMetricsListener(registry);
+
+    @Test
+    void testStartupIsRecordedOnceAtTheFirstWrite() {
+        // When
+        listener.afterWrite(new Chunk<>(List.of(new Record())));
+        listener.afterWrite(new Chunk<>(List.of(new Record())));
+
+        // Then
+        Timer startup = registry.get("batch.startup.to.first.record").timer();
+        assertEquals(1, startup.count());
+        assertTrue(startup.totalTime(TimeUnit.MILLISECONDS) > 0, "JVM uptime should be recorded");
+    }
+
+    @Test
+    void testExitIsMeasuredFromTheLastWrite() throws Exception {
+        // Given
+        listener.afterWrite(new Chunk<>(List.of(new Record())));
+        Thread.sleep(20);
+
+        // When
+        listener.recordExit();
+
+        // Then
+        Timer exit = registry.get("batch.last.record.to.exit").timer();
+        assertEquals(1, exit.count());
+        assertTrue(exit.totalTime(TimeUnit.MILLISECONDS) >= 20);
+    }
+
+    @Test
+    void testNothingIsRecordedWithoutWrites() {
+        // When
+        listener.recordExit();
+
+        // Then
+        assertEquals(0, registry.get("batch.last.record.to.exit").timer().count());
+        assertEquals(0, registry.get("batch.startup.to.first.record").timer().count());
+    }
+}
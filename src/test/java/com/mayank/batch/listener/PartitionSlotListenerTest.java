@@ -0,0 +1,37 @@
+package com.mayank.batch.listener;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionSlotListenerTest {
+
+    private final PartitionSlotListener listener = new PartitionSlotListener();
+    private final JobExecution jobExecution = new JobExecution(1L);
+
+    @Test
+    void testFinishedPartitionsFreeTheirSlotForTheNextOne() {
+        // Given two running partitions
+        StepExecution first = partition(10L);
+        StepExecution second = partition(11L);
+        listener.beforeStep(first);
+        listener.beforeStep(second);
+
+        // When the first finishes and a third starts
+        listener.afterStep(first);
+        StepExecution third = partition(12L);
+        listener.beforeStep(third);
+
+        // Then
+        assertEquals("1", listener.slotOf(second));
+        assertEquals("0", listener.slotOf(third));
+        assertEquals(PartitionSlotListener.NO_SLOT, listener.slotOf(first));
+        assertEquals(PartitionSlotListener.NO_SLOT, listener.slotOf(null));
+    }
+
+    private StepExecution partition(long id) {
+        return new StepExecution("slaveStep:partition" + id, jobExecution, id);
+    }
+}
@@ -1,7 +1,15 @@
 package com.mayank.batch.partitioner;
 
+import com.mayank.batch.model.Record;
+import com.mayank.batch.reader.ColumnarPartitionItemReader;
+import com.mayank.batch.reader.CompressedPartitionResource;
+import com.mayank.batch.reader.CsvPartitionItemReader;
+import com.mayank.batch.reader.IdRangeFilteringItemReader;
+import com.mayank.batch.reader.InMemoryObjectStoreResource;
+import com.mayank.batch.util.ColumnarConverter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -12,7 +20,23 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -68,4 +92,337 @@ class RangePartitionerTest {
         ExecutionContext p3 = partitions.get("partition3");
         assertTrue(p3.getInt("itemCount") > 0 || p3.getLong("maxValue") == 10000L);
     }
+
+    @Test
+    void testPartitionsAreContiguousLineAlignedByteRanges(@TempDir Path tempDir) throws IOException {
+        // Given a small file whose payload contains commas and escaped quotes
+        Path input = tempDir.resolve("input.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            content.append(i).append(",\"{\"\"value\"\": ").append(i).append("}\",2025-01-01T00:00:00\n");
+        }
+        Files.writeString(input, content);
+        byte[] bytes = Files.readAllBytes(input);
+
+        ReflectionTestUtils.setField(partitioner, "inputFile", input.toString());
+        when(resourceLoader.getResource(input.toString())).thenReturn(new FileSystemResource(input));
+
+        // When
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        // Then every partition starts where the previous one ended, on a line boundary
+        assertEquals(4, partitions.size());
+        long expectedStart = 0L;
+        int totalItems = 0;
+        for (int i = 0; i < partitions.size(); i++) {
+            ExecutionContext context = partitions.get("partition" + i);
+            long startOffset = context.getLong("startOffset");
+            long endOffset = context.getLong("endOffset");
+
+            assertEquals(expectedStart, startOffset);
+            assertTrue(endOffset > startOffset);
+            assertTrue(startOffset == 0 || bytes[(int) startOffset - 1] == '\n');
+            assertEquals(totalItems, context.getInt("startAt"));
+
+            String firstLine = new String(bytes, (int) startOffset, 16, StandardCharsets.UTF_8);
+            assertEquals(String.valueOf(totalItems + 1), firstLine.substring(0, firstLine.indexOf(',')));
+
+            totalItems += context.getInt("itemCount");
+            expectedStart = endOffset;
+        }
+        assertEquals(bytes.length, expectedStart);
+        assertEquals(1000, totalItems);
+    }
+
+    @Test
+    void testRemoteObjectIsProbedInsteadOfStreamed(@TempDir Path tempDir) throws IOException {
+        // Given the same file once on disk and once in a fake object store
+        Path input = tempDir.resolve("input.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 20000; i++) {
+            content.append(i).append(",\"payload-").append(i).append("\",2025-01-01T00:00:00\n");
+        }
+        Files.writeString(input, content);
+        byte[] bytes = Files.readAllBytes(input);
+        InMemoryObjectStoreResource remote = new InMemoryObjectStoreResource(bytes);
+
+        ReflectionTestUtils.setField(partitioner, "inputFile", input.toString());
+        when(resourceLoader.getResource(input.toString())).thenReturn(new FileSystemResource(input));
+        Map<String, ExecutionContext> scanned = partitioner.partition(4);
+
+        ReflectionTestUtils.setField(partitioner, "inputFile", "remote.csv");
+        when(resourceLoader.getResource("remote.csv")).thenReturn(remote);
+
+        // When
+        Map<String, ExecutionContext> probed = partitioner.partition(4);
+
+        // Then the byte ranges match the full scan, but only a few KB per boundary were transferred
+        assertEquals(4, probed.size());
+        for (int i = 0; i < 4; i++) {
+            ExecutionContext expected = scanned.get("partition" + i);
+            ExecutionContext actual = probed.get("partition" + i);
+            assertEquals(expected.getLong("startOffset"), actual.getLong("startOffset"));
+            assertEquals(expected.getLong("endOffset"), actual.getLong("endOffset"));
+            assertFalse(actual.containsKey("itemCount"));
+        }
+        assertTrue(remote.getBytesServed() < bytes.length / 4);
+    }
+
+    @Test
+    void testBgzfInputIsSplitOnBlocksAndEveryLineIsReadOnce(@TempDir Path tempDir) throws IOException {
+        // Given a BGZF file with small blocks, so most blocks start and end mid-line
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 5000; i++) {
+            content.append(i).append(",\"payload-").append(i).append("\",2025-01-01T00:00:00\n");
+        }
+        Path input = tempDir.resolve("input.csv.gz");
+        writeBgzf(input, content.toString().getBytes(StandardCharsets.UTF_8), 1000);
+
+        ReflectionTestUtils.setField(partitioner, "inputFile", input.toString());
+        when(resourceLoader.getResource(input.toString())).thenReturn(new FileSystemResource(input));
+
+        // When
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        // Then every partition reads its own blocks and the ids come out complete and in order
+        assertEquals(4, partitions.size());
+        long expectedId = 1L;
+        long expectedStart = 0L;
+        for (int i = 0; i < partitions.size(); i++) {
+            ExecutionContext context = partitions.get("partition" + i);
+            assertEquals("bgzf", context.getString("compression"));
+            assertEquals(expectedStart, context.getLong("startOffset"));
+            expectedStart = context.getLong("endOffset");
+
+            CompressedPartitionResource resource = new CompressedPartitionResource(new FileSystemResource(input),
+                    "bgzf", context.getLong("startOffset"), context.getLong("endOffset"));
+            for (Record record : readAll(new CsvPartitionItemReader(resource, 0L, Long.MAX_VALUE))) {
+                assertEquals(expectedId++, record.getId());
+            }
+        }
+        assertEquals(Files.size(input), expectedStart);
+        assertEquals(5001L, expectedId);
+    }
+
+    @Test
+    void testPlainGzipInputIsReadByOnePartition(@TempDir Path tempDir) throws IOException {
+        // Given
+        Path input = tempDir.resolve("input.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(input))) {
+            for (int i = 1; i <= 1000; i++) {
+                out.write((i + ",\"payload-" + i + "\",2025-01-01T00:00:00\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        ReflectionTestUtils.setField(partitioner, "inputFile", input.toString());
+        when(resourceLoader.getResource(input.toString())).thenReturn(new FileSystemResource(input));
+
+        // When
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        // Then
+        assertEquals(1, partitions.size());
+        ExecutionContext context = partitions.get("partition0");
+        assertEquals("gzip", context.getString("compression"));
+        CompressedPartitionResource resource = new CompressedPartitionResource(new FileSystemResource(input),
+                "gzip", context.getLong("startOffset"), context.getLong("endOffset"));
+        assertEquals(1000, readAll(new CsvPartitionItemReader(resource, 0L, Long.MAX_VALUE)).size());
+    }
+
+    @Test
+    void testColumnarInputIsSplitOnRowGroups(@TempDir Path tempDir) throws IOException {
+        // Given a CSV converted with row groups of 100 rows
+        Path csv = tempDir.resolve("input.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 5000; i++) {
+            content.append(i).append(",\"payload-").append(i).append("\",2025-01-01T00:00:00\n");
+        }
+        Files.writeString(csv, content);
+        Path input = tempDir.resolve("input.col");
+        ColumnarConverter.convert(csv, input, 100);
+
+        ReflectionTestUtils.setField(partitioner, "inputFile", input.toString());
+        when(resourceLoader.getResource(input.toString())).thenReturn(new FileSystemResource(input));
+
+        // When
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        // Then the partitions cover every row group once and read back every id in order
+        assertEquals(4, partitions.size());
+        long expectedId = 1L;
+        int totalItems = 0;
+        for (int i = 0; i < partitions.size(); i++) {
+            ExecutionContext context = partitions.get("partition" + i);
+            assertEquals("columnar", context.getString("format"));
+            assertEquals(totalItems, context.getInt("startAt"));
+            totalItems += context.getInt("itemCount");
+
+            ColumnarPartitionItemReader reader = new ColumnarPartitionItemReader(new FileSystemResource(input),
+                    context.getLong("startOffset"), context.getLong("endOffset"));
+            reader.open(new ExecutionContext());
+            Record record;
+            while ((record = reader.read()) != null) {
+                assertEquals(expectedId++, record.getId());
+            }
+            reader.close();
+        }
+        assertEquals(5000, totalItems);
+        assertEquals(5001L, expectedId);
+    }
+
+    @Test
+    void testDynamicModeCutsSmallerUnitsCoveringTheFile(@TempDir Path tempDir) throws IOException {
+        // Given
+        Path input = tempDir.resolve("input.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            content.append(i).append(",\"payload-").append(i).append("\",2025-01-01T00:00:00\n");
+        }
+        Files.writeString(input, content);
+
+        ReflectionTestUtils.setField(partitioner, "inputFile", input.toString());
+        ReflectionTestUtils.setField(partitioner, "mode", "dynamic");
+        ReflectionTestUtils.setField(partitioner, "unitsPerWorker", 10);
+        when(resourceLoader.getResource(input.toString())).thenReturn(new FileSystemResource(input));
+
+        // When
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        // Then
+        assertEquals(40, partitions.size());
+        long expectedStart = 0L;
+        int totalItems = 0;
+        for (int i = 0; i < partitions.size(); i++) {
+            ExecutionContext context = partitions.get("partition" + i);
+            assertEquals(expectedStart, context.getLong("startOffset"));
+            totalItems += context.getInt("itemCount");
+            expectedStart = context.getLong("endOffset");
+        }
+        assertEquals(Files.size(input), expectedStart);
+        assertEquals(1000, totalItems);
+    }
+
+    @Test
+    void testIdModeBalancesShuffledSparseIds(@TempDir Path tempDir) throws Exception {
+        // Given 20000 sparse ids (multiples of 7) in shuffled order
+        Path input = tempDir.resolve("input.csv");
+        List<Long> ids = new ArrayList<>();
+        for (long i = 1; i <= 20000; i++) {
+            ids.add(i * 7);
+        }
+        Collections.shuffle(ids, new Random(42));
+        StringBuilder content = new StringBuilder();
+        for (long id : ids) {
+            content.append(id).append(",\"payload-").append(id).append("\",2025-01-01T00:00:00\n");
+        }
+        Files.writeString(input, content);
+
+        ReflectionTestUtils.setField(partitioner, "inputFile", input.toString());
+        ReflectionTestUtils.setField(partitioner, "partitionBy", "id");
+        ReflectionTestUtils.setField(partitioner, "idSampleSize", 4096);
+        when(resourceLoader.getResource(input.toString())).thenReturn(new FileSystemResource(input));
+
+        // When
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        // Then the id ranges tile the id space and every id is read by exactly one partition
+        assertEquals(4, partitions.size());
+        Set<Long> seen = new HashSet<>();
+        long expectedMinId = Long.MIN_VALUE;
+        for (int i = 0; i < partitions.size(); i++) {
+            ExecutionContext context = partitions.get("partition" + i);
+            assertEquals("id", context.getString("partitionBy"));
+            assertEquals(expectedMinId, context.getLong("minId"));
+            long maxId = context.getLong("maxId");
+
+            IdRangeFilteringItemReader reader = new IdRangeFilteringItemReader(new CsvPartitionItemReader(
+                    new FileSystemResource(input), context.getLong("startOffset"), context.getLong("endOffset")),
+                    context.getLong("minId"), maxId);
+            reader.open(new ExecutionContext());
+            int count = 0;
+            Record record;
+            while ((record = reader.read()) != null) {
+                assertTrue(seen.add(record.getId()));
+                count++;
+            }
+            reader.close();
+
+            // Each partition holds about a quarter of the rows, and its estimate is close to what it read
+            assertTrue(count > 4000 && count < 6000, "partition" + i + " read " + count);
+            assertTrue(Math.abs(context.getInt("itemCount") - count) < 1000);
+            expectedMinId = maxId == Long.MAX_VALUE ? maxId : maxId + 1;
+        }
+        assertEquals(Long.MAX_VALUE, expectedMinId);
+        assertEquals(20000, seen.size());
+    }
+
+    @Test
+    void testIdModeNarrowsByteRangesForSortedIds(@TempDir Path tempDir) throws IOException {
+        // Given sorted ids with a large gap in the middle
+        Path input = tempDir.resolve("input.csv");
+        StringBuilder content = new StringBuilder();
+        for (long i = 1; i <= 4000; i++) {
+            long id = i <= 2000 ? i : 1_000_000L + i;
+            content.append(id).append(",\"payload-").append(id).append("\",2025-01-01T00:00:00\n");
+        }
+        Files.writeString(input, content);
+        long fileSize = Files.size(input);
+
+        ReflectionTestUtils.setField(partitioner, "inputFile", input.toString());
+        ReflectionTestUtils.setField(partitioner, "partitionBy", "id");
+        ReflectionTestUtils.setField(partitioner, "idSampleSize", 65536);
+        when(resourceLoader.getResource(input.toString())).thenReturn(new FileSystemResource(input));
+
+        // When
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        // Then each partition only reads the part of the file holding its ids
+        assertEquals(4, partitions.size());
+        for (ExecutionContext context : partitions.values()) {
+            long length = context.getLong("endOffset") - context.getLong("startOffset");
+            assertTrue(length < fileSize / 2, "byte range of " + length + " out of " + fileSize);
+            assertTrue(Math.abs(context.getInt("itemCount") - 1000) <= 50);
+        }
+    }
+
+    private static List<Record> readAll(CsvPartitionItemReader reader) {
+        List<Record> records = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        Record record;
+        while ((record = reader.read()) != null) {
+            records.add(record);
+        }
+        reader.close();
+        return records;
+    }
+
+    /**
+     * Writes {@code data} as BGZF blocks of {@code blockSize} uncompressed bytes, followed by the empty EOF block.
+     */
+    private static void writeBgzf(Path path, byte[] data, int blockSize) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            for (int offset = 0; offset < data.length; offset += blockSize) {
+                writeBgzfBlock(out, data, offset, Math.min(blockSize, data.length - offset));
+            }
+            writeBgzfBlock(out, data, 0, 0);
+        }
+    }
+
+    private static void writeBgzfBlock(OutputStream out, byte[] data, int offset, int length) throws IOException {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        byte[] compressed = new byte[length + 1024];
+        int compressedLength = deflater.deflate(compressed);
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+
+        int bsize = 12 + 6 + compressedLength + 8 - 1;
+        ByteBuffer block = ByteBuffer.allocate(bsize + 1).order(ByteOrder.LITTLE_ENDIAN);
+        block.put(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff});
+        block.putShort((short) 6).put((byte) 'B').put((byte) 'C').putShort((short) 2).putShort((short) bsize);
+        block.put(compressed, 0, compressedLength);
+        block.putInt((int) crc.getValue()).putInt(length);
+        out.write(block.array());
+    }
 }
@@ -3,7 +3,10 @@ package com.mayank.batch.processor;
 import com.mayank.batch.model.Record;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,6 +32,45 @@ class TransformProcessorTest {
         assertTrue(transformed.getPayload().contains("original"));
     }
 
+    @Test
+    void testPayloadMatchesFormattedOutput() {
+        // Given instants with no fraction and with millisecond, microsecond and nanosecond precision
+        String[] instants = {"2025-02-11T20:28:07Z", "2025-02-11T20:28:07.969Z", "2025-02-11T20:28:07.969103Z",
+                "2025-02-11T20:28:07.000000001Z", "2025-02-11T20:28:08.010Z"};
+        for (String text : instants) {
+            Instant now = Instant.parse(text);
+            TransformProcessor fixedClockProcessor = new TransformProcessor(Clock.fixed(now, ZoneOffset.UTC));
+            Record input = new Record();
+            input.setId(7L);
+            input.setPayload("{\"value\": 130}");
+
+            // When
+            Record transformed = fixedClockProcessor.process(input);
+
+            // Then
+            String expected = String.format("{\"original\": %s, \"processed\": true, \"timestamp\": \"%s\"}",
+                    input.getPayload(), now.toString());
+            assertEquals(expected, transformed.getPayload());
+        }
+    }
+
+    @Test
+    void testMutateInPlaceReturnsInputRecord() {
+        // Given
+        TransformProcessor inPlaceProcessor = new TransformProcessor();
+        inPlaceProcessor.setMutateInPlace(true);
+        Record input = new Record();
+        input.setId(1L);
+        input.setPayload("null");
+
+        // When
+        Record transformed = inPlaceProcessor.process(input);
+
+        // Then
+        assertSame(input, transformed);
+        assertTrue(transformed.getPayload().startsWith("{\"original\": null, \"processed\": true"));
+    }
+
     @Test
     void testNullInput() {
         // When
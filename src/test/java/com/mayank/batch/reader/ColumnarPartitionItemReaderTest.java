@@ -0,0 +1,101 @@
+package com.mayank.batch.reader;
+
+import com.mayank.batch.model.Record;
+import com.mayank.batch.util.ColumnarConverter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarPartitionItemReaderTest {
+
+    private static final String CSV = """
+            1,"{""value"": 130, ""category"": ""CAT_3""}",2025-02-11T20:28:07.969103
+            2,"{"record_id":2, "data":"payload-data-2"}",2025-11-07T20:32:03
+            x3,"{""value"": 3}",2025-13-01T00:00:00
+            4,plain,2024-02-29T23:59
+            5,"caf\u00e9",1969-12-31T23:59:59.5
+            """;
+
+    @Test
+    void testConvertedFileReadsBackTheSameRecordsAsTheCsv(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path csv = tempDir.resolve("input.csv");
+        Files.writeString(csv, CSV);
+        Path columnar = tempDir.resolve("input.col");
+
+        // When
+        long rows = ColumnarConverter.convert(csv, columnar, 2);
+
+        // Then
+        assertEquals(5, rows);
+        List<Record> expected = readAll(new CsvPartitionItemReader(new FileSystemResource(csv), 0, Files.size(csv)),
+                new ExecutionContext());
+        List<Record> actual = readAll(
+                new ColumnarPartitionItemReader(new FileSystemResource(columnar), 0, dataEnd(columnar)),
+                new ExecutionContext());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getPayload(), actual.get(i).getPayload());
+            assertEquals(expected.get(i).getCreatedAt(), actual.get(i).getCreatedAt());
+        }
+        assertNull(actual.get(2).getId());
+        assertNull(actual.get(2).getCreatedAt());
+    }
+
+    @Test
+    void testRestartResumesMidRowGroup(@TempDir Path tempDir) throws Exception {
+        // Given a reader that committed after three of five rows (row groups of two)
+        Path csv = tempDir.resolve("input.csv");
+        Files.writeString(csv, CSV);
+        Path columnar = tempDir.resolve("input.col");
+        ColumnarConverter.convert(csv, columnar, 2);
+        long end = dataEnd(columnar);
+
+        ColumnarPartitionItemReader reader = new ColumnarPartitionItemReader(new FileSystemResource(columnar), 0, end);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        reader.read();
+        reader.read();
+        reader.read();
+        reader.update(executionContext);
+        reader.close();
+
+        // When the remaining rows are read from a non-file resource
+        ColumnarPartitionItemReader restarted = new ColumnarPartitionItemReader(
+                new ByteArrayResource(Files.readAllBytes(columnar)), 0, end);
+        List<Record> remaining = readAll(restarted, executionContext);
+
+        // Then
+        assertEquals(2, remaining.size());
+        assertEquals(4L, remaining.get(0).getId());
+        assertEquals("caf\u00e9", remaining.get(1).getPayload());
+    }
+
+    private static long dataEnd(Path columnar) throws IOException {
+        return ColumnarFormat.readIndex(new FileSystemResource(columnar), Files.size(columnar)).dataEnd();
+    }
+
+    private static List<Record> readAll(ItemStreamReader<Record> reader, ExecutionContext executionContext)
+            throws Exception {
+        List<Record> records = new ArrayList<>();
+        reader.open(executionContext);
+        Record record;
+        while ((record = reader.read()) != null) {
+            records.add(record);
+        }
+        reader.close();
+        return records;
+    }
+}
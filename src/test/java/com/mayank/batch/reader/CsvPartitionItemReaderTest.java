@@ -0,0 +1,142 @@
+package com.mayank.batch.reader;
+
+import com.mayank.batch.model.Record;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvPartitionItemReaderTest {
+
+    private static final String CSV = """
+            1,"{""value"": 130, ""category"": ""CAT_3""}",2025-02-11T20:28:07.969103
+            2,"{"record_id":2, "data":"payload-data-2"}",2025-11-07T20:32:03
+            x3,"{""value"": 3}",2025-13-01T00:00:00
+
+            4,plain,2024-02-29T23:59
+            """;
+
+    @Test
+    void testReadsQuotedFieldsAndMapsMalformedValuesToNull(@TempDir Path tempDir) throws IOException {
+        // Given
+        Path input = tempDir.resolve("input.csv");
+        Files.writeString(input, CSV);
+        CsvPartitionItemReader reader = new CsvPartitionItemReader(new FileSystemResource(input), 0, Files.size(input));
+
+        // When
+        List<Record> records = readAll(reader, new ExecutionContext());
+
+        // Then
+        assertEquals(4, records.size());
+        assertEquals(1L, records.get(0).getId());
+        assertEquals("{\"value\": 130, \"category\": \"CAT_3\"}", records.get(0).getPayload());
+        assertEquals(LocalDateTime.parse("2025-02-11T20:28:07.969103"), records.get(0).getCreatedAt());
+
+        assertEquals("{\"record_id\":2, \"data\":\"payload-data-2\"}", records.get(1).getPayload());
+        assertEquals(LocalDateTime.parse("2025-11-07T20:32:03"), records.get(1).getCreatedAt());
+
+        assertNull(records.get(2).getId());
+        assertNull(records.get(2).getCreatedAt());
+
+        assertEquals("plain", records.get(3).getPayload());
+        assertEquals(LocalDateTime.parse("2024-02-29T23:59"), records.get(3).getCreatedAt());
+    }
+
+    @Test
+    void testRestartResumesFromSavedOffset(@TempDir Path tempDir) throws IOException {
+        // Given a file read with a window smaller than a line, so every line forces a remap
+        Path input = tempDir.resolve("input.csv");
+        Files.writeString(input, CSV);
+        long size = Files.size(input);
+        CsvPartitionItemReader reader = new CsvPartitionItemReader(new FileSystemResource(input), 0, size);
+        reader.setWindowSize(16);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        assertEquals(1L, reader.read().getId());
+        assertEquals(2L, reader.read().getId());
+        reader.update(executionContext);
+        reader.close();
+
+        // When
+        CsvPartitionItemReader restarted = new CsvPartitionItemReader(new FileSystemResource(input), 0, size);
+        List<Record> remaining = readAll(restarted, executionContext);
+
+        // Then
+        assertEquals(2, remaining.size());
+        assertNull(remaining.get(0).getId());
+        assertEquals(4L, remaining.get(1).getId());
+    }
+
+    @Test
+    void testStreamsNonFileResourceWithinByteRange() {
+        // Given only the second and third lines of the input
+        byte[] bytes = CSV.getBytes(StandardCharsets.UTF_8);
+        String content = new String(bytes, StandardCharsets.UTF_8);
+        int start = content.indexOf('\n') + 1;
+        int end = content.indexOf("x3,");
+        CsvPartitionItemReader reader = new CsvPartitionItemReader(new ByteArrayResource(bytes), start, end);
+
+        // When
+        List<Record> records = readAll(reader, new ExecutionContext());
+
+        // Then
+        assertEquals(1, records.size());
+        assertEquals(2L, records.get(0).getId());
+    }
+
+    @Test
+    void testTransfersOnlyItsOwnRangeOfARangeReadableResource() {
+        // Given a remote object and the range holding the second and third lines
+        byte[] bytes = CSV.getBytes(StandardCharsets.UTF_8);
+        String content = new String(bytes, StandardCharsets.UTF_8);
+        int start = content.indexOf('\n') + 1;
+        int end = content.indexOf("4,plain");
+        InMemoryObjectStoreResource resource = new InMemoryObjectStoreResource(bytes);
+        CsvPartitionItemReader reader = new CsvPartitionItemReader(resource, start, end);
+
+        // When
+        List<Record> records = readAll(reader, new ExecutionContext());
+
+        // Then
+        assertEquals(2, records.size());
+        assertEquals(2L, records.get(0).getId());
+        assertNull(records.get(1).getId());
+        assertEquals(end - start, resource.getBytesServed());
+    }
+
+    @Test
+    void testIncorrectTokenCountFails() {
+        // Given
+        byte[] bytes = "1,\"a\",2025-01-01T00:00,extra\n".getBytes(StandardCharsets.UTF_8);
+        CsvPartitionItemReader reader = new CsvPartitionItemReader(new ByteArrayResource(bytes), 0, bytes.length);
+        reader.open(new ExecutionContext());
+
+        // When / Then
+        FlatFileParseException e = assertThrows(FlatFileParseException.class, reader::read);
+        assertEquals("1,\"a\",2025-01-01T00:00,extra", e.getInput());
+        reader.close();
+    }
+
+    private static List<Record> readAll(CsvPartitionItemReader reader, ExecutionContext executionContext) {
+        List<Record> records = new ArrayList<>();
+        reader.open(executionContext);
+        Record record;
+        while ((record = reader.read()) != null) {
+            records.add(record);
+        }
+        reader.close();
+        return records;
+    }
+}
@@ -0,0 +1,133 @@
+package com.mayank.batch.reader;
+
+import com.mayank.batch.model.Record;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintFilteringItemReaderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testDropsUnchangedAndPassesChangedAndNewRecords() throws Exception {
+        // Given fingerprints from the last run for ids 1 and 2, where id 2's payload has since changed
+        DataSource dataSource = fingerprints(new long[][]{
+                {1L, FingerprintFilteringItemReader.fingerprint("a")},
+                {2L, FingerprintFilteringItemReader.fingerprint("b")}});
+        FingerprintFilteringItemReader reader = new FingerprintFilteringItemReader(
+                records(record(1L, "a"), record(2L, "b2"), record(3L, "c"), record(null, "d")),
+                () -> FingerprintSnapshot.load(new JdbcTemplate(dataSource), 1L, 3L), registry);
+
+        // When
+        reader.open(new ExecutionContext());
+        List<Record> read = new ArrayList<>();
+        Record record;
+        while ((record = reader.read()) != null) {
+            read.add(record);
+        }
+        reader.close();
+
+        // Then
+        assertEquals(3, read.size());
+        assertEquals(2L, read.get(0).getId());
+        assertEquals(FingerprintFilteringItemReader.fingerprint("b2"), read.get(0).getFingerprint());
+        assertEquals(3L, read.get(1).getId());
+        assertNull(read.get(2).getId());
+        assertNull(read.get(2).getFingerprint());
+        assertEquals(1.0, registry.get("batch.incremental.records").tag("outcome", "unchanged").counter().count());
+        assertEquals(1.0, registry.get("batch.incremental.records").tag("outcome", "changed").counter().count());
+        assertEquals(1.0, registry.get("batch.incremental.records").tag("outcome", "new").counter().count());
+    }
+
+    @Test
+    void testPartitionsWithoutIdRangeShareOneSnapshotPerJob() {
+        // Given
+        FingerprintCache cache = new FingerprintCache(fingerprints(new long[][]{{1L, 11L}}));
+
+        // When
+        FingerprintSnapshot first = cache.forJob(7L);
+        FingerprintSnapshot second = cache.forJob(7L);
+        FingerprintSnapshot nextJob = cache.forJob(8L);
+
+        // Then
+        assertSame(first, second);
+        assertNotSame(first, nextJob);
+        assertEquals(11L, first.fingerprintAt(first.indexOf(1L)));
+    }
+
+    @Test
+    void testFingerprintDependsOnEveryCharacter() {
+        // Given
+        String payload = "{\"record_id\":1, \"data\":\"payload-data-1\"}";
+
+        // When
+        long fingerprint = FingerprintFilteringItemReader.fingerprint(payload);
+
+        // Then
+        assertEquals(fingerprint, FingerprintFilteringItemReader.fingerprint(new String(payload)));
+        assertNotEquals(fingerprint, FingerprintFilteringItemReader.fingerprint(payload.replace('1', '2')));
+        assertNotEquals(fingerprint, FingerprintFilteringItemReader.fingerprint(payload + " "));
+        assertEquals(FingerprintFilteringItemReader.fingerprint(""), FingerprintFilteringItemReader.fingerprint(null));
+    }
+
+    private static Record record(Long id, String payload) {
+        Record record = new Record();
+        record.setId(id);
+        record.setPayload(payload);
+        return record;
+    }
+
+    private static ItemStreamReader<Record> records(Record... records) {
+        ListItemReader<Record> list = new ListItemReader<>(List.of(records));
+        return new ItemStreamReader<>() {
+            @Override
+            public Record read() {
+                return list.read();
+            }
+        };
+    }
+
+    /**
+     * A DataSource whose every query returns {@code rows} of (id, fingerprint).
+     */
+    private static DataSource fingerprints(long[][] rows) {
+        int[] row = {-1};
+        ResultSet resultSet = proxy(ResultSet.class, (method, args) -> switch (method) {
+            case "next" -> ++row[0] < rows.length;
+            case "getLong" -> rows[row[0]][(int) args[0] - 1];
+            default -> null;
+        });
+        PreparedStatement statement = proxy(PreparedStatement.class,
+                (method, args) -> "executeQuery".equals(method) ? resultSet : null);
+        Connection connection = proxy(Connection.class, (method, args) -> switch (method) {
+            case "prepareStatement" -> statement;
+            case "getAutoCommit" -> true;
+            default -> null;
+        });
+        return proxy(DataSource.class, (method, args) -> "getConnection".equals(method) ? connection : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+}
@@ -0,0 +1,41 @@
+package com.mayank.batch.reader;
+
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fake object store entry serving ranged reads from memory and counting the bytes it hands out.
+ */
+public class InMemoryObjectStoreResource extends ByteArrayResource implements RangeReadableResource {
+
+    private final AtomicLong bytesServed = new AtomicLong();
+
+    public InMemoryObjectStoreResource(byte[] content) {
+        super(content, "in-memory object");
+    }
+
+    public long getBytesServed() {
+        return bytesServed.get();
+    }
+
+    @Override
+    public ReadableByteChannel readableChannel(long startOffset, long endOffset) {
+        byte[] content = getByteArray();
+        int from = (int) Math.min(startOffset, content.length);
+        int to = (int) Math.min(endOffset, content.length);
+        bytesServed.addAndGet(to - from);
+        return Channels.newChannel(new ByteArrayInputStream(Arrays.copyOfRange(content, from, to)));
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        bytesServed.addAndGet(getByteArray().length);
+        return new ByteArrayInputStream(getByteArray());
+    }
+}
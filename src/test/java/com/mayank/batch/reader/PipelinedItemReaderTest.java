@@ -0,0 +1,178 @@
+package com.mayank.batch.reader;
+
+import com.mayank.batch.model.Record;
+import com.mayank.batch.processor.InvalidRecordException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelinedItemReaderTest {
+
+    private static final ItemProcessor<Record, Record> SKIP_ODD_IDS = item -> {
+        if (item.getId() % 2 == 1) {
+            return null;
+        }
+        item.setPayload("processed-" + item.getPayload());
+        return item;
+    };
+
+    @Test
+    void testDeliversProcessedItemsInOrder(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path input = writeInput(tempDir, 20);
+        PipelinedItemReader<Record, Record> reader = new PipelinedItemReader<>(
+                new CsvPartitionItemReader(new FileSystemResource(input), 0, Files.size(input)), SKIP_ODD_IDS, 3, 2);
+
+        // When
+        reader.open(new ExecutionContext());
+        List<Record> records = new ArrayList<>();
+        Record record;
+        while ((record = reader.read()) != null) {
+            records.add(record);
+        }
+        reader.close();
+
+        // Then
+        assertEquals(10, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(2L * (i + 1), records.get(i).getId());
+            assertEquals("processed-payload-" + (2 * (i + 1)), records.get(i).getPayload());
+        }
+    }
+
+    @Test
+    void testRestartResumesAfterLastCheckpoint(@TempDir Path tempDir) throws Exception {
+        // Given a reader that has handed out two full chunks of three items and part of a third
+        Path input = writeInput(tempDir, 20);
+        long size = Files.size(input);
+        PipelinedItemReader<Record, Record> reader = new PipelinedItemReader<>(
+                new CsvPartitionItemReader(new FileSystemResource(input), 0, size), SKIP_ODD_IDS, 3, 4);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        for (int i = 0; i < 6; i++) {
+            reader.read();
+        }
+        reader.update(executionContext);
+        reader.read();
+        reader.close();
+
+        // When
+        PipelinedItemReader<Record, Record> restarted = new PipelinedItemReader<>(
+                new CsvPartitionItemReader(new FileSystemResource(input), 0, size), SKIP_ODD_IDS, 3, 4);
+        restarted.open(executionContext);
+        Record first = restarted.read();
+        restarted.close();
+
+        // Then the item after the committed chunks comes next, regardless of how far the pipeline had run ahead
+        assertEquals(14L, first.getId());
+    }
+
+    @Test
+    void testReaderFailureIsRethrownOnStepThread() {
+        // Given
+        RuntimeException failure = new IllegalStateException("boom");
+        PipelinedItemReader<Record, Record> reader = new PipelinedItemReader<>(
+                new FailingReader(failure), item -> item, 10, 10);
+        reader.open(new ExecutionContext());
+
+        // When / Then
+        assertSame(failure, assertThrows(IllegalStateException.class, reader::read));
+        reader.close();
+    }
+
+    @Test
+    void testFatalFailureWithFullQueueIsRethrownAfterQueuedItems(@TempDir Path tempDir) throws Exception {
+        // Given a processor that fails with an Error while the queue of two items is full
+        Path input = writeInput(tempDir, 9);
+        AssertionError failure = new AssertionError("boom");
+        ItemProcessor<Record, Record> failOnThird = item -> {
+            if (item.getId() == 3) {
+                throw failure;
+            }
+            return item;
+        };
+        PipelinedItemReader<Record, Record> reader = new PipelinedItemReader<>(
+                new CsvPartitionItemReader(new FileSystemResource(input), 0, Files.size(input)), failOnThird, 3, 2);
+        reader.open(new ExecutionContext());
+        Thread.sleep(200);
+
+        // When / Then the queued items come first, then the failure instead of a hang
+        assertEquals(1L, reader.read().getId());
+        assertEquals(2L, reader.read().getId());
+        assertSame(failure, assertThrows(AssertionError.class, reader::read));
+        assertNull(reader.read());
+        reader.close();
+    }
+
+    @Test
+    void testItemFailuresAreRethrownInPlaceAndThePipelineCarriesOn(@TempDir Path tempDir) throws Exception {
+        // Given a processor that rejects every third item
+        Path input = writeInput(tempDir, 9);
+        ItemProcessor<Record, Record> rejectEveryThird = item -> {
+            if (item.getId() % 3 == 0) {
+                throw new InvalidRecordException(item, "rejected");
+            }
+            return item;
+        };
+        PipelinedItemReader<Record, Record> reader = new PipelinedItemReader<>(
+                new CsvPartitionItemReader(new FileSystemResource(input), 0, Files.size(input)), rejectEveryThird,
+                3, 2, ValidationException.class);
+
+        // When
+        reader.open(new ExecutionContext());
+        List<Long> delivered = new ArrayList<>();
+        List<Long> rejected = new ArrayList<>();
+        while (true) {
+            try {
+                Record record = reader.read();
+                if (record == null) {
+                    break;
+                }
+                delivered.add(record.getId());
+            } catch (InvalidRecordException e) {
+                rejected.add(e.getRecord().getId());
+            }
+        }
+        reader.close();
+
+        // Then
+        assertEquals(List.of(1L, 2L, 4L, 5L, 7L, 8L), delivered);
+        assertEquals(List.of(3L, 6L, 9L), rejected);
+    }
+
+    private static Path writeInput(Path tempDir, int lines) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= lines; i++) {
+            csv.append(i).append(",payload-").append(i).append(",2025-01-01T00:00:00\n");
+        }
+        Path input = tempDir.resolve("input.csv");
+        Files.writeString(input, csv);
+        return input;
+    }
+
+    private static final class FailingReader implements ItemStreamReader<Record> {
+
+        private final RuntimeException failure;
+
+        private FailingReader(RuntimeException failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public Record read() {
+            throw failure;
+        }
+    }
+}
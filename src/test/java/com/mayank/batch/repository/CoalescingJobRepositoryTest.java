@@ -0,0 +1,160 @@
+package com.mayank.batch.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingJobRepositoryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountingJobRepository delegate = new CountingJobRepository();
+    private final StepExecution stepExecution = new StepExecution("slaveStep:partition0", new JobExecution(1L), 1L);
+
+    @Test
+    void testCoalescedModeWritesEveryNthCheckpointAndTheFinalState() {
+        // Given
+        CoalescingJobRepository repository = new CoalescingJobRepository(delegate, 10, 0, false, registry);
+
+        // When
+        runStep(repository, 25);
+
+        // Then the first chunk, chunks 11 and 21 and the end of the step reach the delegate
+        assertEquals(4, delegate.contextUpdates);
+        assertEquals(5, delegate.stepUpdates);
+        assertEquals(22.0, registry.get("batch.metadata.calls")
+                .tags("operation", "step.update", "outcome", "coalesced").counter().count());
+        assertEquals(22.0, registry.get("batch.metadata.calls")
+                .tags("operation", "step.context", "outcome", "coalesced").counter().count());
+        assertEquals(9.0 / 25, registry.get("batch.metadata.calls.per.chunk")
+                .tag("step", "slaveStep").summary().mean(), 1e-9);
+    }
+
+    @Test
+    void testJdbcModeSendsEveryCall() {
+        // Given
+        CoalescingJobRepository repository = new CoalescingJobRepository(delegate, 1, 0, false, registry);
+
+        // When
+        runStep(repository, 25);
+
+        // Then
+        assertEquals(26, delegate.contextUpdates);
+        assertEquals(27, delegate.stepUpdates);
+        assertEquals(53.0 / 25, registry.get("batch.metadata.calls.per.chunk").summary().mean(), 1e-9);
+    }
+
+    @Test
+    void testSeparateStoreWritesCheckpointAfterCommit() {
+        // Given
+        CoalescingJobRepository repository = new CoalescingJobRepository(delegate, 1, 0, true, registry);
+        stepExecution.setStatus(BatchStatus.STARTED);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When a chunk checkpoints inside its transaction
+            repository.updateExecutionContext(stepExecution);
+            stepExecution.incrementCommitCount();
+            repository.update(stepExecution);
+
+            // Then nothing is written before the commit
+            assertEquals(0, delegate.contextUpdates);
+            assertEquals(0, delegate.stepUpdates);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1, delegate.contextUpdates);
+            assertEquals(1, delegate.stepUpdates);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Calls the repository the way {@code AbstractStep} and {@code TaskletStep} do for a step of {@code chunks} chunks.
+     */
+    private void runStep(JobRepository repository, int chunks) {
+        stepExecution.setStatus(BatchStatus.STARTED);
+        repository.update(stepExecution);
+        for (int i = 0; i < chunks; i++) {
+            repository.updateExecutionContext(stepExecution);
+            stepExecution.incrementCommitCount();
+            repository.update(stepExecution);
+        }
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        repository.updateExecutionContext(stepExecution);
+        stepExecution.setEndTime(LocalDateTime.now());
+        repository.update(stepExecution);
+    }
+
+    private static class CountingJobRepository implements JobRepository {
+
+        private int stepUpdates;
+        private int contextUpdates;
+
+        @Override
+        public void update(StepExecution stepExecution) {
+            stepUpdates++;
+        }
+
+        @Override
+        public void updateExecutionContext(StepExecution stepExecution) {
+            contextUpdates++;
+        }
+
+        @Override
+        public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+            return false;
+        }
+
+        @Override
+        public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+            return null;
+        }
+
+        @Override
+        public JobExecution createJobExecution(String jobName, JobParameters jobParameters) {
+            return null;
+        }
+
+        @Override
+        public void update(JobExecution jobExecution) {
+        }
+
+        @Override
+        public void add(StepExecution stepExecution) {
+        }
+
+        @Override
+        public void addAll(Collection<StepExecution> stepExecutions) {
+        }
+
+        @Override
+        public void updateExecutionContext(JobExecution jobExecution) {
+        }
+
+        @Override
+        public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+            return null;
+        }
+
+        @Override
+        public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+            return 0;
+        }
+
+        @Override
+        public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.mayank.batch.step;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveChunkSizePolicyTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(registry);
+    private final StepExecution stepExecution = new StepExecution("slaveStep", new JobExecution(1L), 1L);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(policy, "initialSize", 100);
+        ReflectionTestUtils.setField(policy, "mode", "latency");
+        ReflectionTestUtils.setField(policy, "minSize", 10);
+        ReflectionTestUtils.setField(policy, "maxSize", 300);
+        ReflectionTestUtils.setField(policy, "targetMillis", 60_000L);
+        ReflectionTestUtils.setField(policy, "increment", 50);
+        ReflectionTestUtils.setField(policy, "decrease", 0.5);
+        StepSynchronizationManager.register(stepExecution);
+        policy.beforeStep(stepExecution);
+    }
+
+    @AfterEach
+    void tearDown() {
+        StepSynchronizationManager.close();
+    }
+
+    @Test
+    void testFastChunksGrowAdditivelyUpToMax() {
+        // When every chunk commits well within the target latency
+        int[] sizes = new int[6];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = runChunk(0L);
+        }
+
+        // Then
+        assertArrayEquals(new int[]{100, 150, 200, 250, 300, 300}, sizes);
+        assertEquals(4.0, registry.get("batch.chunk.size.adjustments").tag("action", "increase").counter().count());
+        assertEquals(6L, registry.get("batch.chunk.size").summary().count());
+    }
+
+    @Test
+    void testSlowAndFailedChunksShrinkMultiplicatively() {
+        // Given
+        ReflectionTestUtils.setField(policy, "targetMillis", 10L);
+
+        // When two chunks exceed the target, one fails and the next is fast again
+        int first = runChunk(30L);
+        int second = runChunk(30L);
+        policy.afterChunkError(new ChunkContext(new StepContext(stepExecution)));
+        int third = runChunk(0L);
+        int fourth = runChunk(0L);
+
+        // Then the size halves after each slow or failed chunk and grows back additively
+        assertEquals(100, first);
+        assertEquals(50, second);
+        assertEquals(12, third);
+        assertEquals(62, fourth);
+
+        // And never drops below the minimum
+        for (int i = 0; i < 4; i++) {
+            policy.afterChunkError(new ChunkContext(new StepContext(stepExecution)));
+        }
+        assertEquals(10, runChunk(30L));
+    }
+
+    @Test
+    void testDisabledUnlessModeIsSet() {
+        assertTrue(policy.isEnabled());
+        ReflectionTestUtils.setField(policy, "mode", "off");
+        assertFalse(policy.isEnabled());
+    }
+
+    /**
+     * Reads items until the policy completes the chunk, taking {@code millis} before the commit, and returns the
+     * number of items in the chunk.
+     */
+    private int runChunk(long millis) {
+        ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+        policy.beforeChunk(chunkContext);
+        RepeatContext context = policy.start(new RepeatContextSupport(null));
+        int items = 0;
+        while (!policy.isComplete(context)) {
+            policy.update(context);
+            items++;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stepExecution.setWriteCount(stepExecution.getWriteCount() + items);
+        policy.afterChunk(chunkContext);
+        return items;
+    }
+}
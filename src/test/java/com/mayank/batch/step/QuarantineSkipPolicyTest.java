@@ -0,0 +1,48 @@
+package com.mayank.batch.step;
+
+import com.mayank.batch.model.Record;
+import com.mayank.batch.processor.InvalidRecordException;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuarantineSkipPolicyTest {
+
+    private final QuarantineSkipPolicy policy = new QuarantineSkipPolicy(2);
+
+    @Test
+    void testBadItemsAreSkippedAndDatabaseFailuresAreNot() {
+        // Given
+        Exception invalid = new InvalidRecordException(new Record(), "Missing or malformed id");
+        Exception unparseable = new FlatFileParseException("Parsing error", "1,2", 1);
+        Exception invalidJson = new RuntimeException("Failed to write batch to processed_record",
+                new SQLException("invalid input syntax for type json", "22P02"));
+        Exception deadlock = new RuntimeException("Failed to write batch to processed_record",
+                new SQLException("deadlock detected", "40P01"));
+        Exception missingTable = new RuntimeException("Failed to write batch to processed_record",
+                new SQLException("relation \"processed_record\" does not exist", "42P01"));
+
+        // Then
+        assertTrue(policy.shouldSkip(invalid, 0));
+        assertTrue(policy.shouldSkip(unparseable, 0));
+        assertTrue(policy.shouldSkip(invalidJson, 1));
+        assertFalse(policy.shouldSkip(deadlock, 0));
+        assertFalse(policy.shouldSkip(missingTable, 0));
+        assertThrows(SkipLimitExceededException.class, () -> policy.shouldSkip(invalid, 2));
+    }
+
+    @Test
+    void testOnlyTransientDatabaseErrorsAreRetried() {
+        assertTrue(TransientErrorRetryPolicy.isTransient(
+                new RuntimeException(new SQLException("deadlock detected", "40P01"))));
+        assertTrue(TransientErrorRetryPolicy.isTransient(
+                new RuntimeException(new SQLException("connection refused", "08001"))));
+        assertFalse(TransientErrorRetryPolicy.isTransient(
+                new RuntimeException(new SQLException("invalid input syntax for type json", "22P02"))));
+        assertFalse(TransientErrorRetryPolicy.isTransient(new InvalidRecordException(new Record(), "Missing payload")));
+    }
+}
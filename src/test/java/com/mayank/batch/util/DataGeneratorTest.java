@@ -0,0 +1,83 @@
+package com.mayank.batch.util;
+
+import com.mayank.batch.model.Record;
+import com.mayank.batch.reader.CsvPartitionItemReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataGeneratorTest {
+
+    @Test
+    void testOutputIsIndependentOfThreadCount(@TempDir Path tempDir) throws IOException {
+        // Given
+        Path single = tempDir.resolve("single.csv");
+        Path parallel = tempDir.resolve("parallel.csv");
+
+        // When
+        DataGenerator.generate(options(single, 1, DataGenerator.IdOrder.SEQUENTIAL, true));
+        DataGenerator.generate(options(parallel, 4, DataGenerator.IdOrder.SEQUENTIAL, true));
+
+        // Then
+        assertArrayEquals(Files.readAllBytes(single), Files.readAllBytes(parallel));
+        List<Record> records = readAll(parallel);
+        assertEquals(10000, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            Record record = records.get(i);
+            assertEquals(i + 1L, record.getId());
+            assertTrue(record.getPayload().startsWith("{\"value\": "), record.getPayload());
+            assertNotNull(record.getCreatedAt());
+        }
+    }
+
+    @Test
+    void testShuffledAndSparseIdsAreUnique(@TempDir Path tempDir) throws IOException {
+        for (DataGenerator.IdOrder ids : List.of(DataGenerator.IdOrder.SHUFFLED, DataGenerator.IdOrder.SPARSE)) {
+            // Given
+            Path output = tempDir.resolve(ids + ".csv");
+
+            // When
+            DataGenerator.generate(options(output, 3, ids, false));
+
+            // Then
+            List<Record> records = readAll(output);
+            long distinct = records.stream().map(Record::getId).distinct().count();
+            assertEquals(10000, distinct);
+            boolean ordered = true;
+            for (int i = 1; i < records.size(); i++) {
+                ordered &= records.get(i).getId() > records.get(i - 1).getId();
+            }
+            assertEquals(ids == DataGenerator.IdOrder.SPARSE, ordered);
+            if (ids == DataGenerator.IdOrder.SHUFFLED) {
+                assertEquals(1L, records.stream().mapToLong(Record::getId).min().orElseThrow());
+                assertEquals(10000L, records.stream().mapToLong(Record::getId).max().orElseThrow());
+            }
+        }
+    }
+
+    private static DataGenerator.Options options(Path output, int threads, DataGenerator.IdOrder ids,
+                                                 boolean skewed) {
+        return new DataGenerator.Options(10000, output, 42L, threads, 1000, ids, 10, skewed, 4096);
+    }
+
+    private static List<Record> readAll(Path file) throws IOException {
+        CsvPartitionItemReader reader = new CsvPartitionItemReader(new FileSystemResource(file), 0, Files.size(file));
+        List<Record> records = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        Record record;
+        while ((record = reader.read()) != null) {
+            records.add(record);
+        }
+        reader.close();
+        return records;
+    }
+}
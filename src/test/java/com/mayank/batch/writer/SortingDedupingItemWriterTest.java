@@ -0,0 +1,54 @@
+package com.mayank.batch.writer;
+
+import com.mayank.batch.model.Record;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortingDedupingItemWriterTest {
+
+    private final List<Record> written = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SortingDedupingItemWriter writer =
+            new SortingDedupingItemWriter(chunk -> written.addAll(chunk.getItems()), registry);
+
+    @Test
+    void testChunkIsSortedAndKeepsLastOccurrenceOfEachId() throws Exception {
+        // Given ids out of order, with 7 and 3 repeated
+        Chunk<Record> chunk = new Chunk<>(List.of(
+                record(7L, "a"), record(3L, "b"), record(9L, "c"), record(7L, "d"), record(3L, "e"), record(1L, "f")));
+
+        // When
+        writer.write(chunk);
+
+        // Then
+        assertEquals(List.of(1L, 3L, 7L, 9L), written.stream().map(Record::getId).toList());
+        assertEquals(List.of("f", "e", "d", "c"), written.stream().map(Record::getPayload).toList());
+        assertEquals(2.0, registry.get("batch.write.duplicates.dropped").counter().count());
+    }
+
+    @Test
+    void testRecordsWithoutIdAreKeptAfterTheOthers() throws Exception {
+        // Given
+        Chunk<Record> chunk = new Chunk<>(List.of(record(null, "a"), record(5L, "b"), record(null, "c"), record(2L, "d")));
+
+        // When
+        writer.write(chunk);
+
+        // Then
+        assertEquals(List.of("d", "b", "a", "c"), written.stream().map(Record::getPayload).toList());
+        assertEquals(0.0, registry.get("batch.write.duplicates.dropped").counter().count());
+    }
+
+    private static Record record(Long id, String payload) {
+        Record record = new Record();
+        record.setId(id);
+        record.setPayload(payload);
+        return record;
+    }
+}
@@ -0,0 +1,14 @@
+#!/bin/bash
+
+if [ $# -eq 0 ]; then
+    echo "Usage: $0 <input.csv> [output.col] [row_group_size]"
+    echo "Example: $0 data/sample-10k.csv"
+    exit 1
+fi
+
+echo "Converting $1 to the columnar format..."
+
+mvn compile exec:java -Dexec.mainClass="com.mayank.batch.SpringBatchBenchmarkApplication" \
+    -Dexec.args="convert-data $*"
+
+echo "Conversion completed."
@@ -1,16 +1,22 @@
 #!/bin/bash
 
 if [ $# -eq 0 ]; then
-    echo "Usage: $0 <record_count>"
+    echo "Usage: $0 <record_count> [--output=path] [--threads=n] [--seed=n] [--ids=sequential|sparse|shuffled] [--payload=uniform|skewed]"
     echo "Example: $0 100000"
     exit 1
 fi
 
 RECORD_COUNT=$1
+OUTPUT="data/$RECORD_COUNT.csv"
+for arg in "${@:2}"; do
+    case "$arg" in
+        --output=*) OUTPUT="${arg#--output=}" ;;
+    esac
+done
 
 echo "Generating $RECORD_COUNT records..."
 
 mvn compile exec:java -Dexec.mainClass="com.mayank.batch.SpringBatchBenchmarkApplication" \
-    -Dexec.args="generate-data $RECORD_COUNT"
+    -Dexec.args="generate-data $*"
 
-echo "Data generation completed. File: data/$RECORD_COUNT.csv"
+echo "Data generation completed. File: $OUTPUT"
@@ -0,0 +1,61 @@
+#!/bin/bash
+
+# Runs one job as several JVMs against one Postgres container, the way Cloud Run or an indexed GKE Job
+# would start its tasks: task 0 launches the job and publishes the partitions, the others claim them.
+
+set -e
+
+if [ $# -eq 0 ]; then
+    echo "Usage: $0 <task_count> [input.csv] [partition_grid]"
+    echo "Example: $0 3 data/sample-10k.csv 12"
+    exit 1
+fi
+
+TASK_COUNT=$1
+INPUT=${2:-data/sample-10k.csv}
+GRID=${3:-$((TASK_COUNT * 4))}
+CONTAINER=postgres-remote-partitions
+PORT=${PORT:-5434}
+JAR=$(ls target/spring-batch-probe-*.jar 2>/dev/null | head -1)
+
+if [ -z "$JAR" ]; then
+    echo "Building the application..."
+    mvn -q clean package -DskipTests
+    JAR=$(ls target/spring-batch-probe-*.jar | head -1)
+fi
+
+echo "Starting a fresh Postgres container on port $PORT..."
+docker rm -f -v "$CONTAINER" > /dev/null 2>&1 || true
+docker run -d --name "$CONTAINER" -e POSTGRES_DB=batchdb -e POSTGRES_USER=postgres -e POSTGRES_PASSWORD=postgres \
+    -p "$PORT":5432 postgres:16-alpine > /dev/null
+until docker exec "$CONTAINER" pg_isready -U postgres -d batchdb > /dev/null 2>&1; do sleep 1; done
+sleep 2
+
+# Create the schema once, so no task races another to initialise it
+cat src/main/resources/db/spring-batch-schema-postgres.sql src/main/resources/db/schema.sql \
+    | docker exec -i "$CONTAINER" psql -q -U postgres -d batchdb > /dev/null
+
+mkdir -p target/remote-partitions
+PIDS=()
+for ((i = 0; i < TASK_COUNT; i++)); do
+    CLOUD_RUN_TASK_INDEX=$i CLOUD_RUN_TASK_COUNT=$TASK_COUNT PARTITION_REMOTE=true PARTITION_GRID=$GRID \
+    PARTITION_REMOTE_THREADS=4 PARTITION_REMOTE_IDLE_SECONDS=60 \
+    DB_PORT=$PORT SPRING_SQL_INIT_MODE=never SERVER_PORT=0 INPUT_FILE="$INPUT" \
+        java -jar "$JAR" > "target/remote-partitions/task-$i.log" 2>&1 &
+    PIDS+=($!)
+    echo "Started task $i (pid ${PIDS[$i]}), logging to target/remote-partitions/task-$i.log"
+done
+
+FAILED=0
+for ((i = 0; i < TASK_COUNT; i++)); do
+    if ! wait "${PIDS[$i]}"; then
+        echo "Task $i failed"
+        FAILED=1
+    fi
+done
+
+docker exec "$CONTAINER" psql -U postgres -d batchdb -c \
+    "SELECT claimed_by, status, count(*) AS partitions FROM partition_work GROUP BY claimed_by, status ORDER BY 1, 2"
+docker exec "$CONTAINER" psql -U postgres -d batchdb -c "SELECT count(*) AS processed FROM processed_record"
+
+exit $FAILED
@@ -0,0 +1,41 @@
+#!/bin/bash
+
+# Adds an AppCDS archive to a job image from a training run of probeJob.
+#
+# The archive has to be dumped by the same JVM and class path that will use it, so the training run is the image
+# itself (CDS_TRAINING=true, see docker/entrypoint.sh) against a throwaway Postgres container. The archive is then
+# copied out and layered on top of the image under the same tag.
+
+set -e
+
+if [ $# -eq 0 ]; then
+    echo "Usage: $0 <image> [input.csv]"
+    echo "Example: $0 spring-batch-benchmark:latest data/sample-10k.csv"
+    exit 1
+fi
+
+IMAGE=$1
+INPUT=${2:-src/main/resources/data/sample-10k.csv}
+NETWORK=cds-training
+WORK=$(mktemp -d)
+trap 'docker rm -f cds-postgres cds-train > /dev/null 2>&1 || true; docker network rm "$NETWORK" > /dev/null 2>&1 || true; rm -rf "$WORK"' EXIT
+
+docker network create "$NETWORK" > /dev/null 2>&1 || true
+docker run -d --name cds-postgres --network "$NETWORK" -e POSTGRES_DB=batchdb -e POSTGRES_USER=postgres \
+    -e POSTGRES_PASSWORD=postgres postgres:16-alpine > /dev/null
+until docker exec cds-postgres pg_isready -U postgres -d batchdb > /dev/null 2>&1; do sleep 1; done
+sleep 2
+cat src/main/resources/db/spring-batch-schema-postgres.sql src/main/resources/db/schema.sql \
+    | docker exec -i cds-postgres psql -q -U postgres -d batchdb > /dev/null
+
+echo "Training run of probeJob over $INPUT..."
+docker run --name cds-train --network "$NETWORK" \
+    -v "$(cd "$(dirname "$INPUT")" && pwd)":/data:ro \
+    -e CDS_TRAINING=true -e SPRING_PROFILES_ACTIVE=job -e SPRING_SQL_INIT_MODE=never \
+    -e SPRING_DATASOURCE_URL=jdbc:postgresql://cds-postgres:5432/batchdb \
+    -e INPUT_FILE="/data/$(basename "$INPUT")" -e MANAGEMENT_STACKDRIVER_METRICS_EXPORT_ENABLED=false \
+    "$IMAGE"
+
+docker cp cds-train:/app/cds/app.jsa "$WORK/app.jsa"
+printf 'FROM %s\nCOPY app.jsa /app/cds/app.jsa\n' "$IMAGE" | docker build -q -t "$IMAGE" -f - "$WORK" > /dev/null
+echo "Added a $(du -h "$WORK/app.jsa" | cut -f1) CDS archive to $IMAGE"